@@ -3,6 +3,7 @@ package de.mineking.discordutils;
 import de.mineking.discordutils.commands.CommandManager;
 import de.mineking.discordutils.commands.context.IAutocompleteContext;
 import de.mineking.discordutils.commands.context.ICommandContext;
+import de.mineking.discordutils.console.DiscordLogAppender;
 import de.mineking.discordutils.console.DiscordOutputStream;
 import de.mineking.discordutils.console.MirrorPrintStream;
 import de.mineking.discordutils.console.RedirectTarget;
@@ -20,11 +21,13 @@ import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
+import net.dv8tion.jda.api.events.session.ShutdownEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.DiscordLocale;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.event.Level;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -42,6 +45,7 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 
 	private final LocalizationManager localization;
 	private final Set<Manager> managers;
+	private final TaskScheduler scheduler;
 
 	/**
 	 * @param jda Your {@link JDABuilder} instance
@@ -53,10 +57,11 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		return new Builder<>(jda, bot);
 	}
 
-	DiscordUtils(JDABuilder jda, B bot, LocalizationManager localization, Set<Manager> managers) {
+	DiscordUtils(JDABuilder jda, B bot, LocalizationManager localization, Set<Manager> managers, TaskScheduler scheduler) {
 		this.bot = bot;
 		this.localization = localization;
 		this.managers = managers;
+		this.scheduler = scheduler;
 
 		this.jda = jda.build();
 		this.jda.addEventListener(this);
@@ -75,6 +80,19 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		return jda;
 	}
 
+	/**
+	 * @return The {@link TaskScheduler} shared by all managers
+	 */
+	@NotNull
+	public TaskScheduler getScheduler() {
+		return scheduler;
+	}
+
+	@Override
+	public void onShutdown(@NotNull ShutdownEvent event) {
+		scheduler.shutdown();
+	}
+
 	/**
 	 * @return Your bot instance
 	 */
@@ -107,6 +125,8 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 	}
 
 	/**
+	 * Invokes a method once. For methods that are invoked repeatedly, use {@link #compileMethod(Method, BiFunction)} instead.
+	 *
 	 * @param method   The method to invoke
 	 * @param instance The instance to invoke the method on
 	 * @param args     A function to provide a value for a parameter
@@ -119,6 +139,32 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		return method.invoke(instance, createParameters(method.getParameters(), args));
 	}
 
+	/**
+	 * Resolves the parameter bindings of a method once. Use this instead of {@link #invokeMethod(Method, Object, BiFunction)} for methods that are invoked repeatedly.
+	 * <p>
+	 * Parameters for your bot instance, this {@link DiscordUtils} instance and {@link Manager}s are bound automatically.
+	 *
+	 * @param method The method to compile
+	 * @param args   A function to provide the binding for a parameter. Use {@link MethodInvoker#constant(Object)} for values that do not depend on the source. If the function returns {@code null}, {@code null} is passed
+	 * @return The resulting {@link MethodInvoker}
+	 * @throws IllegalAccessException If the method is not accessible
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public <S> MethodInvoker<S> compileMethod(@NotNull Method method, @NotNull BiFunction<Integer, Parameter, Function<? super S, ?>> args) throws IllegalAccessException {
+		Checks.notNull(method, "method");
+		Checks.notNull(args, "args");
+
+		return MethodInvoker.compile(method, (i, p) -> {
+			if(bot != null && p.getType().isAssignableFrom(bot.getClass())) return MethodInvoker.constant(bot);
+			else if(p.getType().isAssignableFrom(DiscordUtils.class)) return MethodInvoker.constant(this);
+			else if(Manager.class.isAssignableFrom(p.getType())) {
+				var type = (Class<? extends Manager>) p.getType();
+				return getManager(type).<Function<? super S, ?>>map(MethodInvoker::constant).orElse(s -> getManager(type).orElseThrow());
+			} else return args.apply(i, p);
+		});
+	}
+
 	@SuppressWarnings("unchecked")
 	private Object[] createParameters(Parameter[] params, BiFunction<Integer, Parameter, Object> args) {
 		var result = new Object[params.length];
@@ -165,6 +211,7 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		private final List<Consumer<DiscordUtils<B>>> setup = new ArrayList<>();
 
 		private LocalizationManager localization;
+		private final TaskScheduler scheduler = new TaskScheduler();
 
 		private final JDABuilder jda;
 		private final B bot;
@@ -180,20 +227,47 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		}
 
 		/**
+		 * @return The {@link TaskScheduler} that will be shared by all managers
+		 */
+		@NotNull
+		public TaskScheduler getScheduler() {
+			return scheduler;
+		}
+
+		/**
+		 * @param config A consumer to configure the {@link TaskScheduler} shared by all managers
+		 * @return {@code this}
+		 */
+		@NotNull
+		public Builder<B> configureScheduler(@NotNull Consumer<TaskScheduler> config) {
+			Checks.notNull(config, "config");
+
+			config.accept(scheduler);
+			return this;
+		}
+
+		/**
+		 * Mirrors the console by replacing {@link System#out} and {@link System#err}, which affects every write in the process. If you use logback, prefer {@link #mirrorLogs(Level, List, Consumer)}
+		 *
 		 * @param stdout  Whether to mirror {@link System#out}
 		 * @param stderr  Whether to mirror {@link System#err}
 		 * @param targets The {@link RedirectTarget}s you want to mirror the console to
+		 * @param config  A consumer to configure the {@link DiscordOutputStream} of each target, for example its rate limit and {@link DiscordOutputStream.OverflowPolicy}
 		 * @return {@code this}
 		 */
 		@NotNull
-		public final Builder<B> mirrorConsole(boolean stdout, boolean stderr, @NotNull List<RedirectTarget<B>> targets) {
+		public final Builder<B> mirrorConsole(boolean stdout, boolean stderr, @NotNull List<RedirectTarget<B>> targets, @Nullable Consumer<DiscordOutputStream> config) {
 			Checks.notNull(targets, "targets");
 
 			if(!stdout && !stderr) return this;
 			if(targets.isEmpty()) return this;
 
 			setup.add(0, discordUtils -> {
-				var discordStreams = targets.stream().map(t -> new DiscordOutputStream(mes -> t.sendMessage(discordUtils, mes), 10)).toList();
+				var discordStreams = targets.stream().map(t -> {
+					var stream = new DiscordOutputStream(mes -> t.sendMessage(discordUtils, mes), 10, discordUtils.getScheduler());
+					if(config != null) config.accept(stream);
+					return stream;
+				}).toList();
 
 				if(stdout) System.setOut(new MirrorPrintStream(discordStreams, System.out));
 				if(stderr) System.setErr(new MirrorPrintStream(discordStreams, System.err));
@@ -202,6 +276,17 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 			return this;
 		}
 
+		/**
+		 * @param stdout  Whether to mirror {@link System#out}
+		 * @param stderr  Whether to mirror {@link System#err}
+		 * @param targets The {@link RedirectTarget}s you want to mirror the console to
+		 * @return {@code this}
+		 */
+		@NotNull
+		public final Builder<B> mirrorConsole(boolean stdout, boolean stderr, @NotNull List<RedirectTarget<B>> targets) {
+			return mirrorConsole(stdout, stderr, targets, null);
+		}
+
 		/**
 		 * @param targets The {@link RedirectTarget}s you want to mirror the console to
 		 * @return {@code this}
@@ -234,6 +319,44 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		}
 
 
+		/**
+		 * Sends log events to the provided targets using a {@link DiscordLogAppender}. Unlike {@link #mirrorConsole(List)}, this does not replace {@link System#out} and {@link System#err} and only formats events that are actually sent. Requires logback as SLF4J backend
+		 *
+		 * @param level   The minimum {@link Level} of log events to send
+		 * @param targets The {@link RedirectTarget}s you want to send the log events to
+		 * @param config  A consumer to configure the {@link DiscordLogAppender}
+		 * @return {@code this}
+		 */
+		@NotNull
+		public final Builder<B> mirrorLogs(@NotNull Level level, @NotNull List<RedirectTarget<B>> targets, @Nullable Consumer<DiscordLogAppender<B>> config) {
+			Checks.notNull(level, "level");
+			Checks.notNull(targets, "targets");
+
+			if(targets.isEmpty()) return this;
+
+			setup.add(0, discordUtils -> {
+				var appender = new DiscordLogAppender<>(discordUtils, targets).setThreshold(level);
+				if(config != null) config.accept(appender);
+
+				appender.attach();
+			});
+
+			return this;
+		}
+
+		/**
+		 * Sends log events to the provided targets using a {@link DiscordLogAppender}. Requires logback as SLF4J backend
+		 *
+		 * @param level   The minimum {@link Level} of log events to send
+		 * @param targets The {@link RedirectTarget}s you want to send the log events to
+		 * @return {@code this}
+		 */
+		@SafeVarargs
+		@NotNull
+		public final Builder<B> mirrorLogs(@NotNull Level level, @NotNull RedirectTarget<B>... targets) {
+			return mirrorLogs(level, Arrays.asList(targets), null);
+		}
+
 		/**
 		 * @param localization The {@link LocalizationManager} to use
 		 * @return {@code this}
@@ -331,7 +454,7 @@ public class DiscordUtils<B> extends ListenerAdapter implements ManagerContainer
 		}
 
 		public DiscordUtils<B> build() {
-			var result = new DiscordUtils<>(jda, bot, localization, managers);
+			var result = new DiscordUtils<>(jda, bot, localization, managers, scheduler);
 			managers.forEach(m -> m.manager = result);
 			Collections.reverse(setup);
 			setup.forEach(x -> x.accept(result));
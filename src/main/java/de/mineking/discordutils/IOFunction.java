@@ -0,0 +1,7 @@
+package de.mineking.discordutils;
+
+import java.io.IOException;
+
+public interface IOFunction<T, R> {
+	R apply(T t) throws IOException;
+}
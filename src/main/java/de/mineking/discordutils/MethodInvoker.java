@@ -0,0 +1,128 @@
+package de.mineking.discordutils;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A method with parameter bindings that are resolved once. Constant parameters are bound directly to a {@link MethodHandle}, all other parameters are read from a source object with a function that was created at compile time.
+ * Invoking does not use reflection.
+ *
+ * @param <S> The type of the source dynamic parameters are read from
+ * @see DiscordUtils#compileMethod(Method, BiFunction)
+ */
+public final class MethodInvoker<S> {
+	private final static Object[] empty = new Object[0];
+
+	private final Method method;
+	private final MethodHandle handle;
+	private final Function<? super S, ?>[] resolvers;
+
+	private MethodInvoker(Method method, MethodHandle handle, Function<? super S, ?>[] resolvers) {
+		this.method = method;
+		this.handle = handle;
+		this.resolvers = resolvers;
+	}
+
+	/**
+	 * @param value The value
+	 * @return A binding that always provides the same value. The value is bound to the method handle, so it does not cost anything at invocation
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public static <S> Function<S, Object> constant(@Nullable Object value) {
+		return (Function<S, Object>) (Object) new Constant(value);
+	}
+
+	/**
+	 * @param method The method to compile
+	 * @param args   A function to provide the binding for a parameter. Use {@link #constant(Object)} for values that do not depend on the source. If the function returns {@code null}, {@code null} is passed
+	 * @return The resulting {@link MethodInvoker}
+	 * @throws IllegalAccessException If the method is not accessible
+	 */
+	@NotNull
+	@SuppressWarnings("unchecked")
+	static <S> MethodInvoker<S> compile(@NotNull Method method, @NotNull BiFunction<Integer, Parameter, Function<? super S, ?>> args) throws IllegalAccessException {
+		Checks.notNull(method, "method");
+		Checks.notNull(args, "args");
+
+		method.trySetAccessible();
+		var handle = MethodHandles.lookup().unreflect(method);
+
+		//Static methods get a dummy instance parameter, so that all handles have the same shape
+		if(Modifier.isStatic(method.getModifiers())) handle = MethodHandles.dropArguments(handle, 0, Object.class);
+
+		var params = method.getParameters();
+		var bindings = new Function[params.length];
+
+		for(int i = 0; i < params.length; i++) {
+			bindings[i] = args.apply(i, params[i]);
+			if(bindings[i] == null) bindings[i] = constant(null);
+		}
+
+		var resolvers = new ArrayList<Function<? super S, ?>>();
+
+		//Insert constants from the back, so that the indices of the remaining parameters do not change
+		for(int i = params.length - 1; i >= 0; i--) {
+			if(bindings[i] instanceof Constant c) {
+				if(c.value() == null && params[i].getType().isPrimitive())
+					throw new IllegalArgumentException("No value for primitive parameter '" + params[i].getName() + "' of " + method);
+
+				handle = MethodHandles.insertArguments(handle, i + 1, c.value());
+			} else resolvers.add(0, bindings[i]);
+		}
+
+		handle = handle.asType(MethodType.genericMethodType(1 + resolvers.size())).asSpreader(Object[].class, resolvers.size());
+
+		return new MethodInvoker<>(method, handle, resolvers.toArray(Function[]::new));
+	}
+
+	/**
+	 * @return The compiled method
+	 */
+	@NotNull
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * @param instance The instance to invoke the method on. Ignored for static methods
+	 * @param source   The source to read dynamic parameters from
+	 * @return The method's return value or {@code null} for void methods
+	 * @throws InvocationTargetException If the method throws an exception. Exceptions thrown while resolving parameters are not wrapped
+	 */
+	@Nullable
+	public Object invoke(@Nullable Object instance, S source) throws InvocationTargetException {
+		var args = resolvers.length == 0 ? empty : new Object[resolvers.length];
+		for(int i = 0; i < resolvers.length; i++) args[i] = resolvers[i].apply(source);
+
+		try {
+			return (Object) handle.invokeExact(instance, args);
+		} catch(Throwable t) {
+			throw new InvocationTargetException(t);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MethodInvoker[" + method + "]";
+	}
+
+	private record Constant(Object value) implements Function<Object, Object> {
+		@Override
+		public Object apply(Object o) {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package de.mineking.discordutils;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The scheduler and executor shared by all managers of a {@link DiscordUtils} instance. It is shut down together with JDA.
+ * <p>
+ * Timers run on a small pool of scheduler threads and only hand their tasks over to the executor, so that slow tasks cannot delay other timers.
+ *
+ * @see DiscordUtils.Builder#configureScheduler(java.util.function.Consumer)
+ * @see DiscordUtils#getScheduler()
+ */
+public class TaskScheduler implements Executor {
+	private final ScheduledThreadPoolExecutor scheduler;
+	private volatile ExecutorService executor;
+
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final LongAdder completed = new LongAdder();
+
+	public TaskScheduler() {
+		var counter = new AtomicInteger();
+
+		this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			var thread = new Thread(r, "DiscordUtils-Scheduler-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.setRemoveOnCancelPolicy(true);
+
+		this.executor = newVirtualExecutor();
+	}
+
+	/**
+	 * @return An {@link ExecutorService} that runs every task on a new virtual thread or a cached thread pool if the runtime does not support virtual threads
+	 */
+	@NotNull
+	public static ExecutorService newVirtualExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * @param executor The {@link ExecutorService} to run tasks on. The previous executor is shut down after its current tasks finished. By default, every task runs on its own virtual thread if supported
+	 * @return {@code this}
+	 */
+	@NotNull
+	public TaskScheduler setExecutor(@NotNull ExecutorService executor) {
+		Checks.notNull(executor, "executor");
+
+		var old = this.executor;
+		this.executor = executor;
+
+		if(old != executor) old.shutdown();
+		return this;
+	}
+
+	/**
+	 * @param threads The number of threads that trigger timers. Timers only hand their tasks to the executor, so one thread is usually enough
+	 * @return {@code this}
+	 */
+	@NotNull
+	public TaskScheduler setSchedulerThreads(int threads) {
+		Checks.positive(threads, "threads");
+
+		scheduler.setCorePoolSize(threads);
+		return this;
+	}
+
+	@Override
+	public void execute(@NotNull Runnable task) {
+		Checks.notNull(task, "task");
+
+		queued.incrementAndGet();
+
+		try {
+			executor.execute(() -> {
+				queued.decrementAndGet();
+				active.incrementAndGet();
+
+				try {
+					task.run();
+				} finally {
+					active.decrementAndGet();
+					completed.increment();
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			queued.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param task  The task to run
+	 * @param delay The delay
+	 * @param unit  The {@link TimeUnit} of the delay
+	 * @return A {@link ScheduledFuture} that can be used to cancel the task before it was handed to the executor
+	 */
+	@NotNull
+	public ScheduledFuture<?> schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+		Checks.notNull(task, "task");
+		Checks.notNull(unit, "unit");
+
+		return scheduler.schedule(() -> execute(task), delay, unit);
+	}
+
+	/**
+	 * @param task    The task to run
+	 * @param initial The delay of the first execution
+	 * @param period  The period between executions
+	 * @param unit    The {@link TimeUnit} of the delays
+	 * @return A {@link ScheduledFuture} that can be used to cancel the task
+	 */
+	@NotNull
+	public ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable task, long initial, long period, @NotNull TimeUnit unit) {
+		Checks.notNull(task, "task");
+		Checks.notNull(unit, "unit");
+
+		return scheduler.scheduleAtFixedRate(() -> execute(task), initial, period, unit);
+	}
+
+	/**
+	 * @param delay The delay
+	 * @param unit  The {@link TimeUnit} of the delay
+	 * @return An {@link Executor} that runs tasks on this scheduler after the provided delay
+	 */
+	@NotNull
+	public Executor delayed(long delay, @NotNull TimeUnit unit) {
+		Checks.notNull(unit, "unit");
+		return task -> schedule(task, delay, unit);
+	}
+
+	/**
+	 * @return The {@link ScheduledExecutorService} that triggers timers. Tasks submitted directly run on the scheduler threads, so they have to be short
+	 */
+	@NotNull
+	public ScheduledExecutorService getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * @return The {@link ExecutorService} tasks run on
+	 */
+	@NotNull
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return The current number of scheduler threads
+	 */
+	public int getSchedulerThreads() {
+		return scheduler.getPoolSize();
+	}
+
+	/**
+	 * @return The number of timers that did not fire yet
+	 */
+	public int getScheduledTasks() {
+		return scheduler.getQueue().size();
+	}
+
+	/**
+	 * @return The current number of executor threads. For executors that are no {@link ThreadPoolExecutor}, like the default virtual thread executor, this is the number of running tasks
+	 */
+	public int getExecutorThreads() {
+		return executor instanceof ThreadPoolExecutor pool ? pool.getPoolSize() : active.get();
+	}
+
+	/**
+	 * @return The number of tasks waiting for an executor thread
+	 */
+	public int getQueuedTasks() {
+		return queued.get();
+	}
+
+	/**
+	 * @return The number of tasks that are currently running
+	 */
+	public int getActiveTasks() {
+		return active.get();
+	}
+
+	/**
+	 * @return The total number of finished tasks
+	 */
+	public long getCompletedTasks() {
+		return completed.sum();
+	}
+
+	/**
+	 * Cancels all timers and shuts down the executor after its current tasks finished. This is called automatically when JDA shuts down
+	 */
+	public void shutdown() {
+		scheduler.shutdownNow();
+		executor.shutdown();
+	}
+
+	/**
+	 * @return Whether this scheduler was shut down
+	 */
+	public boolean isShutdown() {
+		return scheduler.isShutdown();
+	}
+}
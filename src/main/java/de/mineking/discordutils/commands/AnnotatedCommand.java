@@ -1,5 +1,6 @@
 package de.mineking.discordutils.commands;
 
+import de.mineking.discordutils.MethodInvoker;
 import de.mineking.discordutils.commands.condition.IExecutionCondition;
 import de.mineking.discordutils.commands.condition.IRegistrationCondition;
 import de.mineking.discordutils.commands.condition.cooldown.Cooldown;
@@ -9,6 +10,7 @@ import de.mineking.discordutils.commands.condition.cooldown.CooldownPool;
 import de.mineking.discordutils.commands.context.IAutocompleteContext;
 import de.mineking.discordutils.commands.context.ICommandContext;
 import de.mineking.discordutils.commands.option.Autocomplete;
+import de.mineking.discordutils.commands.option.AutocompleteCache;
 import de.mineking.discordutils.commands.option.AutocompleteOption;
 import de.mineking.discordutils.commands.option.Choice;
 import de.mineking.discordutils.commands.option.Option;
@@ -23,6 +25,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -43,6 +47,7 @@ public class AnnotatedCommand<T, C extends ICommandContext, A extends IAutocompl
 	private final Function<A, Optional<T>> autocompleteInstance;
 
 	private final Method method;
+	private final MethodInvoker<C> invoker;
 
 	@SuppressWarnings("unchecked")
 	private AnnotatedCommand(CommandManager<C, ?> manager, ApplicationCommand info, Class<T> clazz, Method method, @NotNull Function<C, Optional<T>> instance, @NotNull Function<A, Optional<T>> autocompleteInstance) {
@@ -50,6 +55,7 @@ public class AnnotatedCommand<T, C extends ICommandContext, A extends IAutocompl
 
 		this.clazz = clazz;
 		this.method = method;
+		this.invoker = method == null ? null : compile(method, this::bindParameter);
 		this.info = info;
 
 		this.instance = instance;
@@ -105,13 +111,12 @@ public class AnnotatedCommand<T, C extends ICommandContext, A extends IAutocompl
 			var cooldown = m.getAnnotation(Cooldown.class);
 
 			if(cooldown != null) {
+				MethodInvoker<C> handler = compile(m, (x, p) -> context -> p.getType().isInstance(context) ? context : null);
+
 				var impl = new CooldownImpl<C>(Duration.ofMillis(cooldown.unit().toMillis(cooldown.interval())), cooldown.uses(), cooldown.auto(), (man, context) -> instance.apply(context).ifPresent(i -> {
 					try {
-						manager.getManager().invokeMethod(m, i, (x, p) -> {
-							if(p.getType().isAssignableFrom(context.getClass())) return context;
-							else return null;
-						});
-					} catch(InvocationTargetException | IllegalAccessException e) {
+						handler.invoke(i, context);
+					} catch(InvocationTargetException e) {
 						CommandManager.logger.error("Failed to execute cooldown error method", e);
 					}
 				}));
@@ -158,6 +163,30 @@ public class AnnotatedCommand<T, C extends ICommandContext, A extends IAutocompl
 			CommandManager.logger.warn("Command '{}' has neither subcommands nor a method. NOTE: You might have forgotten to add @ApplicationCommandMethod", name);
 	}
 
+	private <S> MethodInvoker<S> compile(Method method, BiFunction<Integer, Parameter, Function<? super S, ?>> args) {
+		try {
+			return manager.getManager().compileMethod(method, args);
+		} catch(IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot access method " + method, e);
+		}
+	}
+
+	private Function<C, Object> bindParameter(int index, Parameter param) {
+		var type = param.getType();
+
+		if(param.isAnnotationPresent(Option.class)) {
+			var name = getOptionName(param);
+			var reader = manager.getOptionReader(param, method.getGenericParameterTypes()[index]);
+
+			return context -> reader.read(context.getEvent(), name);
+		} else if(param.isAnnotationPresent(CooldownIncrement.class)) return context -> (Runnable) () -> getCondition().all().forEach(ec -> {
+			if(ec instanceof CooldownImpl<C> c) {
+				c.increment(context.getEvent().getUser().getIdLong());
+			}
+		});
+		else return context -> type.isInstance(context.getEvent()) ? context.getEvent() : (type.isInstance(context) ? context : null);
+	}
+
 	private static <T, C extends ICommandContext, A extends IAutocompleteContext> AnnotatedCommand<T, C, A> createCommand(Class<T> type, CommandManager<C, A> manager) {
 		var instance = manager.createCommandInstance(type);
 		return getFromClass(manager, type, x -> Optional.ofNullable(instance), x -> Optional.ofNullable(instance));
@@ -251,17 +280,7 @@ public class AnnotatedCommand<T, C extends ICommandContext, A extends IAutocompl
 		if(instance.isEmpty()) CommandManager.logger.warn("No instance found for '{}' with context {}", name, context);
 		else {
 			try {
-				manager.getManager().invokeMethod(method, instance.get(), (i, p) -> {
-					if(p.getType().isAssignableFrom(context.getEvent().getClass())) return context.getEvent();
-					else if(p.getType().isAssignableFrom(context.getClass())) return context;
-					else if (p.isAnnotationPresent(Option.class)) return manager.parseOption(context.getEvent(), getOptionName(p), p, method.getGenericParameterTypes()[i]);
-					else if (p.isAnnotationPresent(CooldownIncrement.class)) return (Runnable) () -> getCondition().all().forEach(ec -> {
-						if (ec instanceof CooldownImpl<C> c) {
-							c.increment(context.getEvent().getUser().getIdLong());
-						}
-					});
-					else return null;
-				});
+				invoker.invoke(instance.get(), context);
 			} catch(CommandCancellation ignored) {
 
 			} catch(InvocationTargetException e) {
@@ -282,25 +301,40 @@ public class AnnotatedCommand<T, C extends ICommandContext, A extends IAutocompl
 
 		if(autocomplete == null)
 			option = new OptionData(manager.getOptionType(generic, param), name, "---", info.required());
-		else option = new AutocompleteOption<A>(manager.getOptionType(generic, param), name, "---", info.required()) {
-			@Override
-			public void handleAutocomplete(@NotNull A context) {
-				AnnotatedCommand.this.autocompleteInstance.apply(context).ifPresent(instance -> {
-					try {
-						manager.getManager().invokeMethod(autocomplete, instance, (i, p) -> {
-							if(p.getType().isAssignableFrom(context.getEvent().getClass())) return context.getEvent();
-							else if(p.getType().isAssignableFrom(context.getClass())) return context;
-							else if(p.getType().isAssignableFrom(AnnotatedCommand.class)) return AnnotatedCommand.this;
-							else return null;
-						});
-					} catch(InvocationTargetException e) {
-						CommandManager.logger.error("autocomplete threw an exception", e.getCause());
-					} catch(Exception e) {
-						CommandManager.logger.error("Failed to perform autocomplete", e);
-					}
-				});
-			}
-		};
+		else {
+			MethodInvoker<A> handler = compile(autocomplete, (i, p) -> {
+				var type = p.getType();
+
+				if(type != Object.class && type.isAssignableFrom(AnnotatedCommand.class)) return MethodInvoker.constant(this);
+				else return context -> type.isInstance(context.getEvent()) ? context.getEvent() : (type.isInstance(context) ? context : null);
+			});
+
+			//Methods that return their choices instead of replying can be cached. This is opt-in, because methods that reply themselves might still return a collection
+			var annotation = autocomplete.getAnnotation(Autocomplete.class);
+			var cache = annotation.reply() && Collection.class.isAssignableFrom(autocomplete.getReturnType()) ? new AutocompleteCache<A>(Duration.ofMillis(annotation.unit().toMillis(annotation.cache()))) : null;
+
+			option = new AutocompleteOption<A>(manager.getOptionType(generic, param), name, "---", info.required()) {
+				@Override
+				public void handleAutocomplete(@NotNull A context) {
+					AnnotatedCommand.this.autocompleteInstance.apply(context).ifPresent(instance -> {
+						try {
+							if(cache == null) handler.invoke(instance, context);
+							else cache.handle(context, c -> {
+								try {
+									return (Collection<net.dv8tion.jda.api.interactions.commands.Command.Choice>) handler.invoke(instance, c);
+								} catch(InvocationTargetException e) {
+									throw new CompletionException(e);
+								}
+							});
+						} catch(InvocationTargetException | CompletionException e) {
+							CommandManager.logger.error("autocomplete threw an exception", e.getCause() instanceof InvocationTargetException ite ? ite.getCause() : e.getCause());
+						} catch(Exception e) {
+							CommandManager.logger.error("Failed to perform autocomplete", e);
+						}
+					});
+				}
+			};
+		}
 
 		var localization = manager.getManager().getLocalization(f -> f.getOptionPath(this, option), info.description());
 		option.setDescription(localization.defaultValue()).setDescriptionLocalizations(localization.values());
@@ -14,6 +14,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -34,7 +35,7 @@ public abstract class Command<C extends ICommandContext> {
 	protected final CommandManager<C, ?> manager;
 	protected Command<C> parent;
 
-	final Map<Object, Long> id = new HashMap<>();
+	final Map<Object, Long> id = new ConcurrentHashMap<>();
 
 	protected final Type type;
 
@@ -54,6 +55,8 @@ public abstract class Command<C extends ICommandContext> {
 
 	private final Set<Command<C>> subcommands = new HashSet<>();
 
+	private volatile String discordPath;
+
 	/**
 	 * Creates a new {@link Command} instance
 	 *
@@ -127,6 +130,17 @@ public abstract class Command<C extends ICommandContext> {
 		subcommands.forEach(handler);
 	}
 
+	/**
+	 * Collects this command and all subcommands that {@link #buildCommand(Guild, Cache)} would include for the provided guild
+	 */
+	void collectRegistered(@Nullable Guild guild, @NotNull Cache data, @NotNull List<Command<C>> result) {
+		result.add(this);
+
+		subcommands.forEach(cmd -> {
+			if(cmd.getRegistration().shouldRegister(manager, guild, data)) cmd.collectRegistered(guild, data, result);
+		});
+	}
+
 	@NotNull
 	public CommandManager<C, ?> getManager() {
 		return manager;
@@ -254,10 +268,24 @@ public abstract class Command<C extends ICommandContext> {
 	 */
 	@NotNull
 	public String getDiscordPath() {
-		if(parent == null) return name;
+		var path = discordPath;
+
+		if(path == null) {
+			//The parent path already has three layers if the parent is at least two levels deep
+			path = parent == null ? name : parent.getDiscordPath() + (parent.getDepth() >= 2 ? "_" : " ") + name;
+			discordPath = path;
+		}
+
+		return path;
+	}
+
+	private int getDepth() {
+		return parent == null ? 0 : parent.getDepth() + 1;
+	}
 
-		var path = parent.getDiscordPath();
-		return path.split(" ").length > 2 ? path + "_" + name : path + " " + name;
+	private void invalidatePath() {
+		discordPath = null;
+		subcommands.forEach(Command::invalidatePath);
 	}
 
 	/**
@@ -289,6 +317,7 @@ public abstract class Command<C extends ICommandContext> {
 
 		subcommands.add(cmd);
 		cmd.parent = this;
+		cmd.invalidatePath();
 
 		return this;
 	}
@@ -308,7 +337,9 @@ public abstract class Command<C extends ICommandContext> {
 	}
 
 	/**
-	 * Builds this command for registration in discord
+	 * Builds this command for registration in discord.
+	 * <p>
+	 * The result is shared by all guilds that register the same commands. If you override this method, it is called for every guild instead, so you can build guild-specific data
 	 *
 	 * @param guild The current guild or {@code null} if this is registered globally
 	 * @param data  The {@link Cache} to provide to {@link IRegistrationCondition}s
@@ -0,0 +1,330 @@
+package de.mineking.discordutils.commands;
+
+import de.mineking.discordutils.TaskScheduler;
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Decides on which thread commands are performed. By default, commands run on the {@link TaskScheduler} of the {@link de.mineking.discordutils.DiscordUtils} instance.
+ * <p>
+ * Commands can optionally be assigned to serial lanes. Commands in the same lane are performed one after another in the order they were received, while different lanes run concurrently.
+ *
+ * @see CommandManager#setExecutor(CommandExecutor)
+ * @see #virtual()
+ * @see #fixed(int)
+ */
+public class CommandExecutor {
+	private final Executor executor;
+	private final boolean owned;
+
+	private volatile int maxPending = Integer.MAX_VALUE;
+	private volatile OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+	private volatile Consumer<GenericCommandInteractionEvent> rejectionHandler = event -> CommandManager.logger.warn("Rejected command '{}' because too many commands are pending", event.getFullCommandName());
+
+	private volatile Function<GenericCommandInteractionEvent, ?> lane;
+	private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger active = new AtomicInteger();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder queueTime = new LongAdder();
+	private final LongAdder executionTime = new LongAdder();
+
+	/**
+	 * @param executor The {@link Executor} to perform commands on
+	 */
+	public CommandExecutor(@NotNull Executor executor) {
+		this(executor, false);
+	}
+
+	private CommandExecutor(@NotNull Executor executor, boolean owned) {
+		Checks.notNull(executor, "executor");
+
+		this.executor = executor;
+		this.owned = owned;
+	}
+
+	/**
+	 * @return A {@link CommandExecutor} that performs every command on a new virtual thread. If the runtime does not support virtual threads, a cached thread pool is used instead
+	 */
+	@NotNull
+	public static CommandExecutor virtual() {
+		return new CommandExecutor(TaskScheduler.newVirtualExecutor(), true);
+	}
+
+	/**
+	 * @param threads The number of platform threads
+	 * @return A {@link CommandExecutor} that performs commands on a fixed number of platform threads
+	 */
+	@NotNull
+	public static CommandExecutor fixed(int threads) {
+		Checks.positive(threads, "threads");
+		return new CommandExecutor(Executors.newFixedThreadPool(threads), true);
+	}
+
+	/**
+	 * Shuts down the executor after its current commands finished, if it was created by {@link #virtual()} or {@link #fixed(int)}. Executors that were passed to the constructor are not shut down. This is called automatically when JDA shuts down
+	 */
+	public void shutdown() {
+		if(owned) ((ExecutorService) executor).shutdown();
+	}
+
+	/**
+	 * Limits the number of commands that are queued or running at the same time. Once this limit is reached, the {@link OverflowPolicy} decides what happens with new commands.
+	 *
+	 * @param maxPending The maximum number of pending commands
+	 * @param policy     The {@link OverflowPolicy}
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandExecutor setLimit(int maxPending, @NotNull OverflowPolicy policy) {
+		Checks.positive(maxPending, "maxPending");
+		Checks.notNull(policy, "policy");
+
+		this.maxPending = maxPending;
+		this.overflowPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * @param handler A consumer that is called with commands that are rejected by {@link OverflowPolicy#REJECT}. You should reply with an error message here. By default, a warning is logged
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandExecutor setRejectionHandler(@NotNull Consumer<GenericCommandInteractionEvent> handler) {
+		Checks.notNull(handler, "handler");
+
+		this.rejectionHandler = handler;
+		return this;
+	}
+
+	/**
+	 * Commands with the same key are performed one after another. Commands with a {@code null} key are not assigned to a lane.
+	 *
+	 * @param key A function to provide the lane key for a command
+	 * @return {@code this}
+	 * @see #serialByCommand()
+	 * @see #serialByGuild()
+	 */
+	@NotNull
+	public CommandExecutor serialBy(@Nullable Function<GenericCommandInteractionEvent, ?> key) {
+		this.lane = key;
+		return this;
+	}
+
+	/**
+	 * Shortcut for {@link #serialBy(Function)}, that serializes executions of the same command
+	 *
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandExecutor serialByCommand() {
+		return serialBy(GenericCommandInteractionEvent::getFullCommandName);
+	}
+
+	/**
+	 * Shortcut for {@link #serialBy(Function)}, that serializes all commands in the same guild. Commands outside of guilds are not serialized
+	 *
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandExecutor serialByGuild() {
+		return serialBy(event -> event.getGuild() == null ? null : event.getGuild().getIdLong());
+	}
+
+	/**
+	 * @param event The event of the command
+	 * @param task  The task that performs the command
+	 */
+	public void execute(@NotNull GenericCommandInteractionEvent event, @NotNull Runnable task) {
+		if(pending.incrementAndGet() > maxPending) {
+			pending.decrementAndGet();
+			rejected.increment();
+
+			if(overflowPolicy == OverflowPolicy.CALLER_RUNS) run(task, System.nanoTime(), false);
+			else rejectionHandler.accept(event);
+
+			return;
+		}
+
+		queued.incrementAndGet();
+
+		var start = System.nanoTime();
+		Runnable runnable = () -> run(task, start, true);
+
+		var key = lane == null ? null : lane.apply(event);
+
+		if(key != null) {
+			submit(key, new LaneTask(event, runnable));
+			return;
+		}
+
+		try {
+			executor.execute(runnable);
+		} catch(RejectedExecutionException e) {
+			reject(event);
+		}
+	}
+
+	private void reject(GenericCommandInteractionEvent event) {
+		pending.decrementAndGet();
+		queued.decrementAndGet();
+		rejected.increment();
+		rejectionHandler.accept(event);
+	}
+
+	private void run(Runnable task, long start, boolean wasQueued) {
+		if(wasQueued) queued.decrementAndGet();
+		active.incrementAndGet();
+
+		var begin = System.nanoTime();
+		queueTime.add(begin - start);
+
+		try {
+			task.run();
+		} finally {
+			executionTime.add(System.nanoTime() - begin);
+			active.decrementAndGet();
+			if(wasQueued) pending.decrementAndGet();
+			completed.increment();
+		}
+	}
+
+	private void submit(Object key, LaneTask task) {
+		var start = new boolean[1];
+
+		var lane = lanes.compute(key, (k, l) -> {
+			if(l == null) l = new Lane();
+			l.tasks.add(task);
+
+			if(!l.running) start[0] = l.running = true;
+			return l;
+		});
+
+		if(!start[0]) return;
+
+		try {
+			executor.execute(() -> drain(key, lane));
+		} catch(RejectedExecutionException e) {
+			//The lane would stay marked as running forever, so it is removed together with all tasks that joined it in the meantime
+			var tasks = new ArrayList<LaneTask>();
+
+			lanes.compute(key, (k, l) -> {
+				tasks.addAll(lane.tasks);
+				lane.tasks.clear();
+				return l == lane ? null : l;
+			});
+
+			tasks.forEach(t -> reject(t.event()));
+		}
+	}
+
+	private void drain(Object key, Lane lane) {
+		while(true) {
+			var next = new LaneTask[1];
+
+			//The lane is removed atomically once it is empty, so new tasks will start a new lane
+			lanes.compute(key, (k, l) -> {
+				next[0] = lane.tasks.poll();
+				return next[0] == null ? null : l;
+			});
+
+			if(next[0] == null) return;
+
+			try {
+				next[0].task().run();
+			} catch(Exception e) {
+				CommandManager.logger.error("An error occurred whilst performing command", e);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of commands that are waiting to be performed
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * @return The number of commands that are currently performed
+	 */
+	public int getActive() {
+		return active.get();
+	}
+
+	/**
+	 * @return The number of commands that were performed
+	 */
+	public long getCompleted() {
+		return completed.sum();
+	}
+
+	/**
+	 * @return The number of commands that hit the limit set with {@link #setLimit(int, OverflowPolicy)}
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return The average time commands waited before being performed
+	 */
+	@NotNull
+	public Duration getAverageQueueTime() {
+		var count = completed.sum();
+		return count == 0 ? Duration.ZERO : Duration.ofNanos(queueTime.sum() / count);
+	}
+
+	/**
+	 * @return The average time it took to perform a command
+	 */
+	@NotNull
+	public Duration getAverageExecutionTime() {
+		var count = completed.sum();
+		return count == 0 ? Duration.ZERO : Duration.ofNanos(executionTime.sum() / count);
+	}
+
+	/**
+	 * Shuts down the underlying executor, if it is an {@link ExecutorService}
+	 */
+	public void shutdown() {
+		if(executor instanceof ExecutorService service) service.shutdown();
+	}
+
+	public enum OverflowPolicy {
+		/**
+		 * New commands are passed to the rejection handler
+		 *
+		 * @see #setRejectionHandler(Consumer)
+		 */
+		REJECT,
+		/**
+		 * New commands are performed directly on the event thread. This slows down event processing until pending commands complete. Serial lanes are ignored for these commands
+		 */
+		CALLER_RUNS
+	}
+
+	private record LaneTask(GenericCommandInteractionEvent event, Runnable task) {
+	}
+
+	private final static class Lane {
+		private final Queue<LaneTask> tasks = new ArrayDeque<>();
+		private boolean running;
+	}
+}
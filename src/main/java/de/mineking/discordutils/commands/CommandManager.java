@@ -1,12 +1,18 @@
 package de.mineking.discordutils.commands;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import de.mineking.discordutils.DiscordUtils;
 import de.mineking.discordutils.Manager;
+import de.mineking.discordutils.TaskScheduler;
 import de.mineking.discordutils.commands.condition.Scope;
 import de.mineking.discordutils.commands.context.IAutocompleteContext;
 import de.mineking.discordutils.commands.context.ICommandContext;
 import de.mineking.discordutils.commands.option.AutocompleteOption;
 import de.mineking.discordutils.commands.option.IOptionParser;
+import de.mineking.discordutils.commands.option.IOptionReader;
 import de.mineking.discordutils.events.EventManager;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
@@ -14,22 +20,33 @@ import net.dv8tion.jda.api.events.guild.GuildReadyEvent;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.events.session.ShutdownEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
 import net.dv8tion.jda.internal.utils.Checks;
+import okio.ByteString;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -40,7 +57,23 @@ import java.util.stream.Collectors;
 public class CommandManager<C extends ICommandContext, A extends IAutocompleteContext> extends Manager {
 	public final static Logger logger = LoggerFactory.getLogger(CommandManager.class);
 
-	private final ExecutorService executor = Executors.newScheduledThreadPool(1);
+	//Commands that override buildCommand might build different data for every guild, so their data is never shared
+	private final static ClassValue<Boolean> customBuild = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("buildCommand", Guild.class, Cache.class).getDeclaringClass() != Command.class;
+			} catch(NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+
+	private final TaskScheduler scheduler;
+	private final CommandRollout rollout;
+
+	private CommandExecutor executor;
+	private Executor autocompleteExecutor;
 
 	private final Function<GenericCommandInteractionEvent, ? extends C> contextCreator;
 	private final Function<CommandAutoCompleteInteractionEvent, ? extends A> autocompleteContextCreator;
@@ -49,7 +82,19 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	private Function<Guild, Cache> data;
 
 	private final List<IOptionParser> optionParsers = new ArrayList<>();
-	private final Map<String, Command<C>> commands = new HashMap<>();
+	private final Map<ParserKey, Optional<IOptionParser>> parsers = new ConcurrentHashMap<>();
+	private final Map<ParserKey, IOptionReader> readers = new ConcurrentHashMap<>();
+	private volatile Routes<C, A> routes = new Routes<>(Map.of(), Map.of(), Map.of());
+	private final Map<String, Command<C>> commandView = new CommandView();
+	private final Map<Long, Command<C>> ids = new ConcurrentHashMap<>();
+
+	private volatile CommandSyncStore syncStore = new CommandSyncStore();
+	private final Map<List<Command<C>>, CommandData> built = new ConcurrentHashMap<>();
+	private final Map<List<List<Command<C>>>, Payload> payloads = new ConcurrentHashMap<>();
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+	private final LongAdder sentUpdates = new LongAdder();
+	private final LongAdder skippedUpdates = new LongAdder();
 
 	BiConsumer<GenericCommandInteractionEvent, CommandException> exceptionHandler;
 
@@ -60,6 +105,11 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		this.contextCreator = contextCreator;
 		this.autocompleteContextCreator = autocompleteContextCreator;
 
+		this.scheduler = manager.getScheduler();
+		this.rollout = new CommandRollout(this, scheduler);
+		this.executor = new CommandExecutor(manager.getScheduler());
+		this.autocompleteExecutor = manager.getScheduler();
+
 		registerOptionParser(IOptionParser.INTEGER);
 		registerOptionParser(IOptionParser.LONG);
 		registerOptionParser(IOptionParser.NUMBER);
@@ -106,6 +156,83 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		return this;
 	}
 
+	/**
+	 * @param executor The {@link CommandExecutor} to perform commands on. The previous executor is shut down after its current commands finished (see {@link CommandExecutor#shutdown()}). By default, commands run on the {@link de.mineking.discordutils.TaskScheduler} of the {@link DiscordUtils} instance
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandManager<C, A> setExecutor(@NotNull CommandExecutor executor) {
+		Checks.notNull(executor, "executor");
+
+		var previous = this.executor;
+		this.executor = executor;
+
+		if(previous != executor) previous.shutdown();
+		return this;
+	}
+
+	/**
+	 * @return The {@link CommandExecutor} used to perform commands. You can use this to read execution metrics
+	 */
+	@NotNull
+	public CommandExecutor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @param executor The {@link Executor} to handle autocomplete interactions on. By default, autocomplete interactions are handled on the {@link de.mineking.discordutils.TaskScheduler} of the {@link DiscordUtils} instance
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandManager<C, A> setAutocompleteExecutor(@NotNull Executor executor) {
+		Checks.notNull(executor, "executor");
+
+		this.autocompleteExecutor = executor;
+		return this;
+	}
+
+	/**
+	 * @param store The {@link CommandSyncStore} to remember the last command update in. By default, the state is only kept in memory
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandManager<C, A> setSyncStore(@NotNull CommandSyncStore store) {
+		Checks.notNull(store, "store");
+
+		this.syncStore = store;
+		return this;
+	}
+
+	/**
+	 * @return The {@link CommandSyncStore} used to skip unchanged command updates
+	 */
+	@NotNull
+	public CommandSyncStore getSyncStore() {
+		return syncStore;
+	}
+
+	/**
+	 * @return The {@link CommandRollout} that paces the automatic command updates of guilds. You can use this to configure the rollout and read its progress
+	 */
+	@NotNull
+	public CommandRollout getRollout() {
+		return rollout;
+	}
+
+	/**
+	 * @return The total number of command updates that were sent to discord
+	 */
+	public long getSentUpdates() {
+		return sentUpdates.sum();
+	}
+
+	/**
+	 * @return The total number of command updates that were skipped because the commands did not change
+	 */
+	public long getSkippedUpdates() {
+		return skippedUpdates.sum();
+	}
+
 	/**
 	 * Registers a command
 	 *
@@ -116,7 +243,7 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	public CommandManager<C, A> registerCommand(@NotNull Command<C> command) {
 		Checks.notNull(command, "command");
 
-		commands.put(command.getDiscordPath(), command);
+		addRoute(command);
 		command.register();
 
 		return this;
@@ -181,6 +308,10 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		Checks.notNull(parser, "parser");
 
 		optionParsers.add(parser);
+
+		parsers.clear();
+		readers.clear();
+
 		return this;
 	}
 
@@ -195,7 +326,7 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	public OptionType getOptionType(@NotNull Type type, @NotNull Parameter param) {
 		Checks.notNull(type, "type");
 
-		return optionParsers.stream().filter(p -> p.accepts(type, param)).map(p -> p.getType(this, type, param)).findFirst().orElse(OptionType.UNKNOWN);
+		return getParser(param, type).map(p -> p.getType(this, type, param)).orElse(OptionType.UNKNOWN);
 	}
 
 	/**
@@ -214,7 +345,32 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		Checks.notNull(param, "param");
 		Checks.notNull(type, "type");
 
-		return optionParsers.stream().filter(p -> p.accepts(type, param)).map(p -> Optional.ofNullable(p.parse(this, event, name, param, type))).findFirst().flatMap(o -> o).orElse(null);
+		return getOptionReader(param, type).read(event, name);
+	}
+
+	/**
+	 * @param param The java method parameter
+	 * @param type  The java type of the parameter
+	 * @return The {@link IOptionReader} of the {@link IOptionParser} responsible for the specified {@link Parameter}. The result is cached, so you can use this to avoid looking up the parser for every execution
+	 * @see IOptionParser#bind(CommandManager, Parameter, Type)
+	 */
+	@NotNull
+	public IOptionReader getOptionReader(@NotNull Parameter param, @NotNull Type type) {
+		Checks.notNull(param, "param");
+		Checks.notNull(type, "type");
+
+		var key = new ParserKey(param, type);
+		var reader = readers.get(key);
+
+		//No computeIfAbsent, because binding can recursively request readers for component types
+		if(reader == null) {
+			reader = getParser(param, type).map(p -> p.bind(this, param, type)).orElse((event, name) -> null);
+
+			var temp = readers.putIfAbsent(key, reader);
+			if(temp != null) reader = temp;
+		}
+
+		return reader;
 	}
 
 	/**
@@ -243,7 +399,18 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	public Optional<IOptionParser> getParser(@NotNull Parameter param, @NotNull Type type) {
 		Checks.notNull(param, "param");
 
-		return optionParsers.stream().filter(p -> p.accepts(type, param)).findFirst();
+		var key = new ParserKey(param, type);
+		var parser = parsers.get(key);
+
+		if(parser == null) {
+			parser = optionParsers.stream().filter(p -> p.accepts(type, param)).findFirst();
+			parsers.putIfAbsent(key, parser);
+		}
+
+		return parser;
+	}
+
+	private record ParserKey(Parameter param, Type type) {
 	}
 
 	/**
@@ -263,7 +430,7 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	}
 
 	/**
-	 * Automatically updates all commands. If the {@link JDA} is not yet ready, the update is scheduled, otherwise the update will be done immediately
+	 * Automatically updates all commands. If the {@link JDA} is not yet ready, the update is scheduled, otherwise the update will be done immediately. Guild updates are paced by the {@link #getRollout() rollout} and skipped if the commands did not change since the last update (see {@link #setSyncStore(CommandSyncStore)})
 	 *
 	 * @param cache A {@link Cache} that is provided to all {@link #updateGuildCommands(Guild, Cache)} calls
 	 * @return {@code this}
@@ -273,8 +440,8 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		this.data = cache;
 
 		if(getManager().getJDA().getStatus() == JDA.Status.CONNECTED) {
-			updateGlobalCommands().queue();
-			getManager().getJDA().getGuilds().forEach(g -> updateGuildCommands(g).queue());
+			syncGlobal();
+			rollout.restart(getManager().getJDA().getGuilds());
 		}
 
 		return this;
@@ -290,11 +457,11 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	}
 
 	/**
-	 * @return A {@link Map} of all commands
+	 * @return A live view of all commands by their {@link Command#getDiscordPath() discord path}. Adding or removing entries updates the commands that interactions are routed to. Iterating uses the commands at the time the iteration started
 	 */
 	@NotNull
 	public Map<String, Command<C>> getCommands() {
-		return commands;
+		return commandView;
 	}
 
 	/**
@@ -303,7 +470,7 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	 */
 	@NotNull
 	public Set<Command<C>> findCommands(@NotNull CommandFilter<C> filter) {
-		return commands.values().stream().filter(filter::filter).collect(Collectors.toSet());
+		return routes.commands().values().stream().filter(filter::filter).collect(Collectors.toSet());
 	}
 
 	/**
@@ -311,9 +478,19 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	 * @return The command implementation for the provided class
 	 */
 	@NotNull
+	@SuppressWarnings("unchecked")
 	public <T> AnnotatedCommand<T, C, A> getCommand(@NotNull Class<T> type) {
 		Checks.notNull(type, "type");
-		return commands.values().stream().filter(c -> c instanceof AnnotatedCommand<?, ?, ?> ac && ac.getClazz().equals(type)).findFirst().map(c -> (AnnotatedCommand<T, C, A>) c).orElseThrow();
+		return Optional.ofNullable((AnnotatedCommand<T, C, A>) routes.classes().get(type)).orElseThrow();
+	}
+
+	/**
+	 * @param id The id of a top-level command, as returned by discord after updating the commands
+	 * @return The command with the provided id or {@code null}
+	 */
+	@Nullable
+	public Command<C> getCommand(long id) {
+		return ids.get(id);
 	}
 
 	/**
@@ -324,7 +501,18 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	@SuppressWarnings("unchecked")
 	@NotNull
 	public RestAction<List<net.dv8tion.jda.api.interactions.commands.Command>> updateGlobalCommands() {
-		return getManager().getJDA().updateCommands().addCommands(findCommands(CommandFilter.all(CommandFilter.top(), (CommandFilter<C>) CommandFilter.scope(Scope.GUILD).invert())).stream().map(c -> c.buildCommand(null, new Cache())).toList()).onSuccess(commands -> commands.forEach(c -> this.commands.get(c.getName()).forAll(cmd -> cmd.id.put(0, c.getIdLong()))));
+		var payload = getGlobalPayload();
+		return getManager().getJDA().updateCommands().addCommands(payload.commands()).onSuccess(commands -> updated(null, payload, commands));
+	}
+
+	/**
+	 * Updates the global commands if they changed since the last update
+	 *
+	 * @return A {@link CompletableFuture} that completes with whether an update was sent to discord
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> syncGlobalCommands() {
+		return sync(null, getGlobalPayload(), () -> getManager().getJDA().updateCommands());
 	}
 
 	/**
@@ -338,9 +526,8 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 	public RestAction<List<net.dv8tion.jda.api.interactions.commands.Command>> updateGuildCommands(@NotNull Guild guild, @NotNull Cache data) {
 		Checks.notNull(guild, "guild");
 
-		if(this.data != null) data.putAll(this.data.apply(guild).asMap());
-
-		return guild.updateCommands().addCommands(findCommands(CommandFilter.all(CommandFilter.top(), CommandFilter.scope(Scope.GUILD), c -> c.getRegistration().shouldRegister(this, guild, data))).stream().map(c -> c.buildCommand(guild, data)).toList()).onSuccess(commands -> commands.forEach(c -> this.commands.get(c.getName()).forAll(cmd -> cmd.id.put(guild.getIdLong(), c.getIdLong()))));
+		var payload = getGuildPayload(guild, data);
+		return guild.updateCommands().addCommands(payload.commands()).onSuccess(commands -> updated(guild, payload, commands));
 	}
 
 	/**
@@ -354,12 +541,164 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		return updateGuildCommands(guild, new Cache());
 	}
 
+	/**
+	 * Updates the commands of the provided {@link Guild} if they changed since the last update
+	 *
+	 * @param guild The guild to update the commands in
+	 * @param data  A {@link Cache} holding information shared with all {@link de.mineking.discordutils.commands.condition.IRegistrationCondition}s
+	 * @return A {@link CompletableFuture} that completes with whether an update was sent to discord
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> syncGuildCommands(@NotNull Guild guild, @NotNull Cache data) {
+		Checks.notNull(guild, "guild");
+		return sync(guild, getGuildPayload(guild, data), guild::updateCommands);
+	}
+
+	/**
+	 * Updates the commands of the provided {@link Guild} if they changed since the last update
+	 *
+	 * @param guild The guild to update the commands in
+	 * @return A {@link CompletableFuture} that completes with whether an update was sent to discord
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> syncGuildCommands(@NotNull Guild guild) {
+		return syncGuildCommands(guild, new Cache());
+	}
+
+	@SuppressWarnings("unchecked")
+	@NotNull
+	private Payload getGlobalPayload() {
+		return getPayload(findCommands(CommandFilter.all(CommandFilter.top(), (CommandFilter<C>) CommandFilter.scope(Scope.GUILD).invert())), null, new Cache());
+	}
+
+	@NotNull
+	private Payload getGuildPayload(@NotNull Guild guild, @NotNull Cache data) {
+		if(this.data != null) data.putAll(this.data.apply(guild).asMap());
+		return getPayload(findCommands(CommandFilter.all(CommandFilter.top(), CommandFilter.scope(Scope.GUILD), c -> c.getRegistration().shouldRegister(this, guild, data))), guild, data);
+	}
+
+	/**
+	 * Only evaluates the registration conditions for the provided guild. Building the commands and computing the hash only happens once for all guilds with the same registered commands, unless a command overrides {@link Command#buildCommand(Guild, Cache)}
+	 */
+	@NotNull
+	private Payload getPayload(@NotNull Set<Command<C>> commands, @Nullable Guild guild, @NotNull Cache data) {
+		var shapes = new ArrayList<List<Command<C>>>();
+
+		for(var command : commands) {
+			var shape = new ArrayList<Command<C>>();
+			command.collectRegistered(guild, data, shape);
+			shapes.add(List.copyOf(shape));
+		}
+
+		shapes.sort(Comparator.<List<Command<C>>, Integer>comparing(s -> s.get(0).type.ordinal()).thenComparing(s -> s.get(0).getName()));
+
+		var key = List.copyOf(shapes);
+
+		if(key.stream().anyMatch(s -> customBuild.get(s.get(0).getClass()))) return createPayload(key, guild, data);
+		return payloads.computeIfAbsent(key, k -> createPayload(k, guild, data));
+	}
+
+	@NotNull
+	private Payload createPayload(@NotNull List<List<Command<C>>> shapes, @Nullable Guild guild, @NotNull Cache data) {
+		var result = shapes.stream()
+				.map(s -> customBuild.get(s.get(0).getClass()) ? s.get(0).buildCommand(guild, data) : built.computeIfAbsent(s, x -> s.get(0).buildCommand(guild, data)))
+				.toList();
+
+		return new Payload(result, hash(result));
+	}
+
+	@NotNull
+	private CompletableFuture<Boolean> sync(@Nullable Guild guild, @NotNull Payload payload, @NotNull Supplier<CommandListUpdateAction> action) {
+		var state = syncStore.get(guild == null ? 0 : guild.getIdLong());
+
+		if(state != null && state.hash().equals(payload.hash())) {
+			state.ids().forEach((name, id) -> updateId(name, id, guild));
+			skippedUpdates.increment();
+
+			return CompletableFuture.completedFuture(false);
+		}
+
+		return action.get().addCommands(payload.commands()).submit().thenApply(commands -> {
+			updated(guild, payload, commands);
+			return true;
+		});
+	}
+
+	private void syncGlobal() {
+		syncGlobalCommands().exceptionally(e -> {
+			logger.error("Failed to update global commands", e);
+			return false;
+		});
+	}
+
+	private void updated(@Nullable Guild guild, @NotNull Payload payload, @NotNull List<net.dv8tion.jda.api.interactions.commands.Command> commands) {
+		var result = new HashMap<String, Long>();
+
+		commands.forEach(c -> {
+			result.put(c.getName(), c.getIdLong());
+			updateId(c.getName(), c.getIdLong(), guild);
+		});
+
+		sentUpdates.increment();
+		syncStore.put(guild == null ? 0 : guild.getIdLong(), new CommandSyncStore.Entry(payload.hash(), Map.copyOf(result)));
+
+		//Saving after every guild would write the file thousands of times on startup
+		if(syncStore.getFile() != null && !saveScheduled.getAndSet(true)) scheduler.schedule(() -> {
+			saveScheduled.set(false);
+
+			try {
+				syncStore.save();
+			} catch(IOException e) {
+				logger.error("Failed to save command sync state", e);
+			}
+		}, 5, TimeUnit.SECONDS);
+	}
+
+	private void updateId(@NotNull String name, long id, @Nullable Guild guild) {
+		var cmd = routes.commands().get(name);
+		if(cmd == null) return;
+
+		ids.put(id, cmd);
+		cmd.forAll(c -> {
+			if(guild == null) c.id.put(0, id);
+			else c.id.put(guild.getIdLong(), id);
+		});
+	}
+
+	/**
+	 * Hashes the canonical json of the commands. Keys are sorted, because the json of {@link CommandData} does not have a stable key order
+	 */
+	@NotNull
+	private static String hash(@NotNull List<CommandData> commands) {
+		var json = new JsonArray();
+		commands.forEach(c -> json.add(canonical(JsonParser.parseString(new String(c.toData().toJson(), StandardCharsets.UTF_8)))));
+
+		return ByteString.encodeUtf8(json.toString()).sha256().hex();
+	}
+
+	@NotNull
+	private static JsonElement canonical(@NotNull JsonElement element) {
+		if(element instanceof JsonObject object) {
+			var result = new JsonObject();
+			object.keySet().stream().sorted().forEach(key -> result.add(key, canonical(object.get(key))));
+			return result;
+		} else if(element instanceof JsonArray array) {
+			var result = new JsonArray();
+			array.forEach(e -> result.add(canonical(e)));
+			return result;
+		}
+
+		return element;
+	}
+
 	@Override
 	public void onGenericCommandInteraction(@NotNull GenericCommandInteractionEvent event) {
-		var command = commands.get(event.getFullCommandName());
-		if(command == null) return;
+		var route = routes.paths().get(event.getFullCommandName());
+		if(route == null) return;
+
+		var command = route.command();
 
-		executor.execute(() -> {
+		executor.execute(event, () -> {
 			try {
 				command.performCommand(event);
 			} catch(Exception e) {
@@ -369,26 +708,190 @@ public class CommandManager<C extends ICommandContext, A extends IAutocompleteCo
 		});
 	}
 
-	@Override
+	@NotNull
+	private Route<C, A> addRoute(@NotNull Command<C> command) {
+		return addRoute(command.getDiscordPath(), command);
+	}
+
 	@SuppressWarnings("unchecked")
+	private synchronized Route<C, A> addRoute(@NotNull String path, @NotNull Command<C> command) {
+		var options = new HashMap<String, AutocompleteOption<A>>();
+
+		for(var option : command.getOptions()) {
+			if(option instanceof AutocompleteOption<?> ao) options.put(option.getName(), (AutocompleteOption<A>) ao);
+		}
+
+		var route = new Route<>(command, Map.copyOf(options));
+		var current = routes;
+
+		var paths = new HashMap<>(current.paths());
+		paths.put(path, route);
+
+		var commands = new HashMap<>(current.commands());
+		commands.put(path, command);
+
+		var classes = new HashMap<>(current.classes());
+		if(command instanceof AnnotatedCommand<?, ?, ?> ac) classes.putIfAbsent(ac.getClazz(), command);
+
+		routes = new Routes<>(Map.copyOf(paths), Map.copyOf(commands), Map.copyOf(classes));
+
+		//Built commands may include the new command as a subcommand
+		built.clear();
+		payloads.clear();
+
+		return route;
+	}
+
+	@Nullable
+	private synchronized Command<C> removeRoute(@NotNull String path) {
+		var current = routes;
+
+		var command = current.commands().get(path);
+		if(command == null) return null;
+
+		var paths = new HashMap<>(current.paths());
+		paths.remove(path);
+
+		var commands = new HashMap<>(current.commands());
+		commands.remove(path);
+
+		var classes = new HashMap<>(current.classes());
+		classes.values().removeIf(c -> c == command && !commands.containsValue(c));
+
+		routes = new Routes<>(Map.copyOf(paths), Map.copyOf(commands), Map.copyOf(classes));
+
+		built.clear();
+		payloads.clear();
+
+		return command;
+	}
+
+	@Nullable
+	private AutocompleteOption<A> getAutocompleteOption(String path, String name) {
+		var route = routes.paths().get(path);
+		if(route == null) return null;
+
+		var option = route.autocomplete().get(name);
+
+		//Options that were added after the command was registered are not indexed yet
+		if(option == null) option = addRoute(route.command()).autocomplete().get(name);
+
+		return option;
+	}
+
+	@Override
 	public void onCommandAutoCompleteInteraction(@NotNull CommandAutoCompleteInteractionEvent event) {
-		if(!commands.containsKey(event.getFullCommandName())) return;
+		var option = getAutocompleteOption(event.getFullCommandName(), event.getFocusedOption().getName());
+		if(option == null) return;
 
-		for(var option : commands.get(event.getFullCommandName()).getOptions()) {
-			if(option instanceof AutocompleteOption<?> && option.getName().equals(event.getFocusedOption().getName())) {
-				((AutocompleteOption<A>) option).handleAutocomplete(createAutocompleteContext(event));
-				return;
+		autocompleteExecutor.execute(() -> {
+			try {
+				option.handleAutocomplete(createAutocompleteContext(event));
+			} catch(Exception e) {
+				logger.error("An error occurred whilst performing autocomplete", e);
 			}
+		});
+	}
+
+	private record Route<C extends ICommandContext, A extends IAutocompleteContext>(@NotNull Command<C> command, @NotNull Map<String, AutocompleteOption<A>> autocomplete) {
+	}
+
+	private record Payload(@NotNull List<CommandData> commands, @NotNull String hash) {
+	}
+
+	/**
+	 * An immutable snapshot of all registered commands. Registering a command replaces the snapshot, so that the interaction threads can read it without locking
+	 */
+	private record Routes<C extends ICommandContext, A extends IAutocompleteContext>(@NotNull Map<String, Route<C, A>> paths, @NotNull Map<String, Command<C>> commands, @NotNull Map<Class<?>, Command<C>> classes) {
+	}
+
+	/**
+	 * A modifiable view of {@link #routes}. Modifications replace the snapshot like registering a command does
+	 */
+	private final class CommandView extends AbstractMap<String, Command<C>> {
+		@Override
+		public Command<C> get(Object key) {
+			return routes.commands().get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return routes.commands().containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return routes.commands().size();
+		}
+
+		@Override
+		public Command<C> put(String key, Command<C> value) {
+			Checks.notNull(key, "key");
+			Checks.notNull(value, "value");
+
+			var previous = routes.commands().get(key);
+			addRoute(key, value);
+
+			return previous;
+		}
+
+		@Override
+		public Command<C> remove(Object key) {
+			return key instanceof String path ? removeRoute(path) : null;
+		}
+
+		@NotNull
+		@Override
+		public Set<Entry<String, Command<C>>> entrySet() {
+			return new AbstractSet<>() {
+				@NotNull
+				@Override
+				public Iterator<Entry<String, Command<C>>> iterator() {
+					var iterator = routes.commands().entrySet().iterator();
+
+					return new Iterator<>() {
+						private Entry<String, Command<C>> current;
+
+						@Override
+						public boolean hasNext() {
+							return iterator.hasNext();
+						}
+
+						@Override
+						public Entry<String, Command<C>> next() {
+							return current = iterator.next();
+						}
+
+						@Override
+						public void remove() {
+							if(current == null) throw new IllegalStateException();
+
+							removeRoute(current.getKey());
+							current = null;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return routes.commands().size();
+				}
+			};
 		}
 	}
 
 	@Override
 	public void onReady(@NotNull ReadyEvent event) {
-		if(autoUpdate) updateGlobalCommands().queue();
+		if(autoUpdate) syncGlobal();
+	}
+
+	@Override
+	public void onShutdown(@NotNull ShutdownEvent event) {
+		executor.shutdown();
 	}
 
 	@Override
 	public void onGuildReady(@NotNull GuildReadyEvent event) {
-		if(autoUpdate) updateGuildCommands(event.getGuild()).queue();
+		if(autoUpdate) rollout.add(event.getGuild());
 	}
 }
@@ -0,0 +1,328 @@
+package de.mineking.discordutils.commands;
+
+import de.mineking.discordutils.TaskScheduler;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Spreads the automatic command updates of guilds over time, instead of sending one update per guild at once when a shard starts.
+ * <p>
+ * At most {@link #setConcurrency(int) concurrency} updates are in flight and new updates are started with a minimum interval. While commands are being performed, only a single update is in flight, so that the responses to interactions do not wait behind command updates. Guilds whose commands did not change (see {@link CommandSyncStore}) do not count towards these limits.
+ * <p>
+ * Guilds that were updated are remembered, so that reconnecting does not update them again. Guilds that are still pending continue after reconnecting. Failed updates are retried with a delay that doubles with every attempt.
+ *
+ * @see CommandManager#getRollout()
+ */
+public class CommandRollout {
+	private final static int MAX_ATTEMPTS = 3;
+	private final static long RETRY_DELAY = 5000;
+
+	private final CommandManager<?, ?> manager;
+	private final TaskScheduler scheduler;
+
+	private volatile int concurrency = 2;
+	private volatile long interval = 250;
+	private volatile Consumer<Progress> listener;
+
+	//Guarded by this
+	private final Deque<Long> queue = new ArrayDeque<>();
+	private final Map<Long, Integer> attempts = new HashMap<>();
+	private int inFlight;
+	private int retrying;
+	private int total;
+	private long lastStart;
+	private boolean scheduled;
+
+	private final AtomicBoolean triggered = new AtomicBoolean();
+
+	private final Set<Long> done = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder updated = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	CommandRollout(@NotNull CommandManager<?, ?> manager, @NotNull TaskScheduler scheduler) {
+		this.manager = manager;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * @param concurrency The maximum number of guild updates that are in flight at the same time. Default is 2
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandRollout setConcurrency(int concurrency) {
+		Checks.positive(concurrency, "concurrency");
+
+		this.concurrency = concurrency;
+		return this;
+	}
+
+	/**
+	 * @param interval The minimum interval between starting two guild updates. Default is 250 milliseconds
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandRollout setInterval(@NotNull Duration interval) {
+		Checks.notNull(interval, "interval");
+		Checks.check(!interval.isNegative(), "interval must not be negative");
+
+		this.interval = interval.toMillis();
+		return this;
+	}
+
+	/**
+	 * @param listener A listener that is called with the current {@link Progress} every time a guild finished
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CommandRollout setProgressListener(@Nullable Consumer<Progress> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * @return The current {@link Progress}
+	 */
+	@NotNull
+	public synchronized Progress getProgress() {
+		var pending = queue.size() + retrying;
+		return new Progress(total, total - pending - inFlight, pending, inFlight);
+	}
+
+	/**
+	 * @return The total number of guild updates that were sent to discord
+	 */
+	public long getUpdated() {
+		return updated.sum();
+	}
+
+	/**
+	 * @return The total number of guild updates that were skipped because the commands did not change
+	 */
+	public long getSkipped() {
+		return skipped.sum();
+	}
+
+	/**
+	 * @return The total number of guild updates that failed {@value MAX_ATTEMPTS} times
+	 */
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	/**
+	 * @param guild The {@link Guild} to update the commands of. Does nothing if the guild was already updated or is pending
+	 */
+	public void add(@NotNull Guild guild) {
+		Checks.notNull(guild, "guild");
+
+		if(done.contains(guild.getIdLong())) return;
+
+		synchronized(this) {
+			if(attempts.containsKey(guild.getIdLong())) return;
+
+			attempts.put(guild.getIdLong(), 0);
+			queue.add(guild.getIdLong());
+			total++;
+		}
+
+		trigger();
+	}
+
+	/**
+	 * Forgets all finished guilds and updates the provided guilds again
+	 *
+	 * @param guilds The guilds to update
+	 */
+	public void restart(@NotNull Collection<Guild> guilds) {
+		Checks.notNull(guilds, "guilds");
+
+		synchronized(this) {
+			done.clear();
+			total = queue.size() + retrying + inFlight;
+		}
+
+		guilds.forEach(this::add);
+	}
+
+	/**
+	 * Submits {@link #run()}, unless it is already waiting for the scheduler. Without this, every {@link net.dv8tion.jda.api.events.guild.GuildReadyEvent} would submit its own task on startup
+	 */
+	private void trigger() {
+		if(triggered.compareAndSet(false, true)) scheduler.execute(this::run);
+	}
+
+	private void run() {
+		triggered.set(false);
+
+		var jda = manager.getManager().getJDA();
+
+		synchronized(this) {
+			scheduled = false;
+		}
+
+		//The lock is only held to take the next guild. Building the payload and the listener run outside, so that getProgress and add do not wait for them
+		while(true) {
+			long id;
+			long now;
+			long previousStart;
+
+			synchronized(this) {
+				if(queue.isEmpty()) return;
+
+				//Requests cannot be sent while disconnected. Pending guilds continue after reconnecting
+				if(jda.getStatus() != JDA.Status.CONNECTED) {
+					schedule(1000);
+					return;
+				}
+
+				var executor = manager.getExecutor();
+				var limit = executor.getActive() + executor.getQueued() > 0 ? 1 : concurrency;
+				if(inFlight >= limit) return;
+
+				now = System.currentTimeMillis();
+				if(lastStart + interval > now) {
+					schedule(lastStart + interval - now);
+					return;
+				}
+
+				id = queue.poll();
+
+				//The slot and start time are reserved while syncing, so that concurrent runs respect the limits
+				inFlight++;
+				previousStart = lastStart;
+				lastStart = now;
+			}
+
+			var guild = jda.getGuildById(id);
+			if(guild == null) {
+				synchronized(this) {
+					release(now, previousStart);
+					attempts.remove(id);
+					total--;
+				}
+
+				continue;
+			}
+
+			CompletableFuture<Boolean> future;
+
+			try {
+				future = manager.syncGuildCommands(guild);
+			} catch(Exception e) {
+				future = CompletableFuture.failedFuture(e);
+			}
+
+			//Skipped updates complete immediately and did not send a request
+			if(future.isDone() && !future.isCompletedExceptionally() && !future.join()) {
+				synchronized(this) {
+					release(now, previousStart);
+					attempts.remove(id);
+					done.add(id);
+				}
+
+				skipped.increment();
+				notifyListener();
+
+				continue;
+			}
+
+			future.whenComplete((result, error) -> finish(id, error));
+		}
+	}
+
+	/**
+	 * Releases a reserved slot of a guild that did not send an update
+	 */
+	private void release(long start, long previousStart) {
+		inFlight--;
+		if(lastStart == start) lastStart = previousStart;
+	}
+
+	private void finish(long id, @Nullable Throwable error) {
+		var delay = -1L;
+
+		synchronized(this) {
+			inFlight--;
+
+			if(error == null) {
+				attempts.remove(id);
+				done.add(id);
+				updated.increment();
+			} else {
+				int attempt = attempts.merge(id, 1, Integer::sum);
+
+				if(attempt < MAX_ATTEMPTS) {
+					retrying++;
+					delay = RETRY_DELAY << (attempt - 1);
+				} else {
+					attempts.remove(id);
+					failed.increment();
+
+					CommandManager.logger.error("Failed to update commands of guild {}", id, error);
+				}
+			}
+		}
+
+		if(delay >= 0) scheduler.schedule(() -> retry(id), delay, TimeUnit.MILLISECONDS);
+
+		notifyListener();
+		trigger();
+	}
+
+	private void retry(long id) {
+		synchronized(this) {
+			retrying--;
+			queue.add(id);
+		}
+
+		trigger();
+	}
+
+	private void schedule(long delay) {
+		if(scheduled) return;
+
+		scheduled = true;
+		scheduler.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void notifyListener() {
+		var listener = this.listener;
+		if(listener != null) listener.accept(getProgress());
+	}
+
+	/**
+	 * @param total     The number of guilds in the current rollout
+	 * @param completed The number of guilds that finished, including failed guilds
+	 * @param pending   The number of guilds that wait for their update
+	 * @param inFlight  The number of guilds that are currently updated
+	 */
+	public record Progress(int total, int completed, int pending, int inFlight) {
+		/**
+		 * @return The fraction of completed guilds between {@code 0} and {@code 1}
+		 */
+		public double ratio() {
+			return total == 0 ? 1 : (double) completed / total;
+		}
+
+		/**
+		 * @return Whether all guilds finished
+		 */
+		public boolean isFinished() {
+			return completed == total;
+		}
+	}
+}
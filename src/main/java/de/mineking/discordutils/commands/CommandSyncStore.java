@@ -0,0 +1,116 @@
+package de.mineking.discordutils.commands;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the hash of the command payload that was last sent to discord, together with the resulting command ids. The {@link CommandManager} uses this to skip updates that would not change anything.
+ * <p>
+ * By default, the state is only kept in memory, which avoids repeated updates after reconnecting. Use {@link #CommandSyncStore(Path)} to also persist it across restarts.
+ *
+ * @see CommandManager#setSyncStore(CommandSyncStore)
+ */
+public class CommandSyncStore {
+	private final static Gson gson = new Gson();
+
+	private final Path file;
+	private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a store that only keeps its state in memory
+	 */
+	public CommandSyncStore() {
+		this.file = null;
+	}
+
+	/**
+	 * Creates a store that persists its state in the provided file. If the file cannot be read, all commands are updated once
+	 *
+	 * @param file The file to store the state in
+	 */
+	public CommandSyncStore(@NotNull Path file) {
+		Checks.notNull(file, "file");
+		this.file = file;
+
+		if(!Files.exists(file)) return;
+
+		try {
+			Map<Long, Entry> data = gson.fromJson(Files.readString(file, StandardCharsets.UTF_8), new TypeToken<Map<Long, Entry>>() {}.getType());
+			if(data != null) data.forEach((guild, entry) -> {
+				if(entry != null && entry.hash() != null && entry.ids() != null) entries.put(guild, entry);
+			});
+		} catch(IOException | JsonParseException e) {
+			CommandManager.logger.warn("Failed to read command sync state from '{}'", file, e);
+		}
+	}
+
+	/**
+	 * @return The file the state is persisted in or {@code null}
+	 */
+	@Nullable
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @param guild The id of the guild or {@code 0} for global commands
+	 * @return The last state that was sent to discord or {@code null}
+	 */
+	@Nullable
+	public Entry get(long guild) {
+		return entries.get(guild);
+	}
+
+	void put(long guild, @NotNull Entry entry) {
+		entries.put(guild, entry);
+	}
+
+	/**
+	 * Forces the next update of the provided guild to be sent to discord
+	 *
+	 * @param guild The id of the guild or {@code 0} for global commands
+	 */
+	public void invalidate(long guild) {
+		entries.remove(guild);
+	}
+
+	/**
+	 * Forces the next update of all guilds and the global commands to be sent to discord
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	/**
+	 * Writes the current state to the file. The file is replaced atomically, so that a crash while saving never leaves a partial file. Does nothing for in-memory stores
+	 *
+	 * @throws IOException If writing the file fails
+	 */
+	public synchronized void save() throws IOException {
+		if(file == null) return;
+
+		var temp = file.resolveSibling(file.getFileName() + ".tmp");
+		Files.writeString(temp, gson.toJson(new HashMap<>(entries)), StandardCharsets.UTF_8);
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @param hash The hash of the command payload
+	 * @param ids  The ids discord assigned to the commands by their name
+	 */
+	public record Entry(@NotNull String hash, @NotNull Map<String, Long> ids) {
+	}
+}
@@ -4,6 +4,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
 
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -12,4 +13,23 @@ public @interface Autocomplete {
 	 * The name of the option
 	 */
 	String value();
+
+	/**
+	 * Whether the method returns a {@link java.util.Collection} of choices that is used to reply, instead of replying itself. Default is {@code false}
+	 *
+	 * @see AutocompleteCache
+	 */
+	boolean reply() default false;
+
+	/**
+	 * How long to cache the choices per guild, user and focused value. Only used if {@link #reply()} is {@code true}
+	 *
+	 * @see AutocompleteCache
+	 */
+	int cache() default 0;
+
+	/**
+	 * The unit of {@link #cache()}
+	 */
+	TimeUnit unit() default TimeUnit.SECONDS;
 }
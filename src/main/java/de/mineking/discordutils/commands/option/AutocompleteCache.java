@@ -0,0 +1,99 @@
+package de.mineking.discordutils.commands.option;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.mineking.discordutils.commands.context.IAutocompleteContext;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Replies to autocomplete interactions with choices that are computed by a handler. Results are cached per command, focused option, guild, user and focused value, so one instance can be shared by multiple options, and identical requests that arrive while the handler is still running share its result.
+ * <p>
+ * You can use this in {@link AutocompleteOption#handleAutocomplete(IAutocompleteContext)}. {@link Autocomplete} methods with {@link Autocomplete#reply()} use this automatically.
+ */
+public class AutocompleteCache<A extends IAutocompleteContext> {
+	private final Cache<Key, List<Command.Choice>> cache;
+	private final Map<Key, CompletableFuture<List<Command.Choice>>> running = new ConcurrentHashMap<>();
+
+	/**
+	 * @param ttl How long results are cached. If this is {@code null} or zero, results are not cached, but identical requests are still coalesced
+	 */
+	public AutocompleteCache(@Nullable Duration ttl) {
+		this.cache = ttl == null || ttl.isZero() || ttl.isNegative() ? null : Caffeine.newBuilder().expireAfterWrite(ttl).build();
+	}
+
+	/**
+	 * Replies to the autocomplete interaction with the choices of the handler or with a cached result
+	 *
+	 * @param context The autocomplete context
+	 * @param handler A function to compute the choices. Only the first {@link OptionData#MAX_CHOICES} choices are used
+	 */
+	public void handle(@NotNull A context, @NotNull Function<A, ? extends Collection<Command.Choice>> handler) {
+		Checks.notNull(context, "context");
+		Checks.notNull(handler, "handler");
+
+		var event = context.getEvent();
+		var key = new Key(event.getFullCommandName(), event.getFocusedOption().getName(), event.getGuild() == null ? 0 : event.getGuild().getIdLong(), event.getUser().getIdLong(), event.getFocusedOption().getValue());
+
+		if(cache != null) {
+			var cached = cache.getIfPresent(key);
+
+			if(cached != null) {
+				reply(event, cached);
+				return;
+			}
+		}
+
+		var future = new CompletableFuture<List<Command.Choice>>();
+		var existing = running.putIfAbsent(key, future);
+
+		if(existing != null) {
+			//If the handler failed, an empty reply is still better than no reply
+			existing.whenComplete((choices, error) -> reply(event, error == null ? choices : List.of()));
+			return;
+		}
+
+		try {
+			var choices = handler.apply(context);
+			var result = choices == null ? List.<Command.Choice>of() : choices.stream().limit(OptionData.MAX_CHOICES).toList();
+
+			if(cache != null) cache.put(key, result);
+			future.complete(result);
+
+			reply(event, result);
+		} catch(RuntimeException e) {
+			future.completeExceptionally(e);
+			reply(event, List.of());
+
+			throw e;
+		} finally {
+			running.remove(key, future);
+		}
+	}
+
+	/**
+	 * Removes all cached results
+	 */
+	public void invalidate() {
+		if(cache != null) cache.invalidateAll();
+	}
+
+	private static void reply(CommandAutoCompleteInteractionEvent event, List<Command.Choice> choices) {
+		event.replyChoices(choices).queue();
+	}
+
+	private record Key(String command, String option, long guild, long user, String value) {
+	}
+}
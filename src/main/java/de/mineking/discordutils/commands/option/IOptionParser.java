@@ -16,7 +16,6 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
 import java.util.*;
-import java.util.regex.Matcher;
 
 /**
  * @see CommandManager#registerOptionParser(IOptionParser)
@@ -53,6 +52,21 @@ public interface IOptionParser {
 	@Nullable
 	Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type);
 
+	/**
+	 * Binds this parser to a parameter. Everything that does not depend on the event, like default value annotations or parsers for component types, should be resolved here.
+	 * The resulting {@link IOptionReader} is cached by the {@link CommandManager}.
+	 *
+	 * @param manager The responsible {@link CommandManager}
+	 * @param param   The java method parameter
+	 * @param type    The java type of the parameter
+	 * @return An {@link IOptionReader} for the parameter. By default, this calls {@link #parse(CommandManager, GenericCommandInteractionEvent, String, Parameter, Type)}
+	 * @see CommandManager#getOptionReader(Parameter, Type)
+	 */
+	@NotNull
+	default IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+		return (event, name) -> parse(manager, event, name, param, type);
+	}
+
 	/**
 	 * Can be used to make final option configuration
 	 *
@@ -92,7 +106,16 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return event.getOption(name, () -> param.isAnnotationPresent(IntegerDefault.class) ? (int) param.getAnnotation(IntegerDefault.class).value() : null, OptionMapping::getAsInt);
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var def = param.getAnnotation(IntegerDefault.class);
+			var fallback = def == null ? null : (int) def.value();
+
+			return (event, name) -> event.getOption(name, fallback, OptionMapping::getAsInt);
 		}
 	};
 
@@ -111,7 +134,16 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return event.getOption(name, () -> param.isAnnotationPresent(IntegerDefault.class) ? param.getAnnotation(IntegerDefault.class).value() : null, OptionMapping::getAsLong);
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var def = param.getAnnotation(IntegerDefault.class);
+			var fallback = def == null ? null : def.value();
+
+			return (event, name) -> event.getOption(name, fallback, OptionMapping::getAsLong);
 		}
 	};
 
@@ -130,7 +162,16 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return event.getOption(name, () -> param.isAnnotationPresent(DoubleDefault.class) ? param.getAnnotation(DoubleDefault.class).value() : null, OptionMapping::getAsDouble);
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var def = param.getAnnotation(DoubleDefault.class);
+			var fallback = def == null ? null : def.value();
+
+			return (event, name) -> event.getOption(name, fallback, OptionMapping::getAsDouble);
 		}
 	};
 
@@ -149,7 +190,16 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return event.getOption(name, () -> param.isAnnotationPresent(BooleanDefault.class) ? param.getAnnotation(BooleanDefault.class).value() : null, OptionMapping::getAsBoolean);
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var def = param.getAnnotation(BooleanDefault.class);
+			var fallback = def == null ? null : def.value();
+
+			return (event, name) -> event.getOption(name, fallback, OptionMapping::getAsBoolean);
 		}
 	};
 
@@ -283,7 +333,16 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return event.getOption(name, () -> param.isAnnotationPresent(StringDefault.class) ? param.getAnnotation(StringDefault.class).value() : null, OptionMapping::getAsString);
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var def = param.getAnnotation(StringDefault.class);
+			var fallback = def == null ? null : def.value();
+
+			return (event, name) -> event.getOption(name, fallback, OptionMapping::getAsString);
 		}
 	};
 
@@ -301,7 +360,14 @@ public interface IOptionParser {
 
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return Optional.ofNullable(manager.parseOption(event, name, param, ReflectionUtils.getComponentType(type)));
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var component = manager.getOptionReader(param, ReflectionUtils.getComponentType(type));
+			return (event, name) -> Optional.ofNullable(component.read(event, name));
 		}
 	};
 
@@ -320,12 +386,22 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
-			return event.getOption(name, o -> ReflectionUtils.getEnumConstant(type, o.getAsString()).orElseGet(() -> {
-				var def = param.getAnnotation(EnumDefault.class);
-				if(def == null) return null;
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
+			var fallback = getDefault(param, type);
+			return (event, name) -> event.getOption(name, o -> ReflectionUtils.getEnumConstant(type, o.getAsString()).orElseGet(() -> fallback));
+		}
 
-				return def.value().isEmpty() ? (Enum<?>) ReflectionUtils.getClass(type).getEnumConstants()[0] : ReflectionUtils.getEnumConstant(type, def.value()).orElse(null);
-			}));
+		@Nullable
+		private Enum<?> getDefault(Parameter param, Type type) {
+			var def = param.getAnnotation(EnumDefault.class);
+			if(def == null) return null;
+
+			return def.value().isEmpty() ? (Enum<?>) ReflectionUtils.getClass(type).getEnumConstants()[0] : ReflectionUtils.getEnumConstant(type, def.value()).orElse(null);
 		}
 
 		@Override
@@ -360,11 +436,38 @@ public interface IOptionParser {
 		@Nullable
 		@Override
 		public Object parse(@NotNull CommandManager<?, ?> manager, @NotNull GenericCommandInteractionEvent event, @NotNull String name, @NotNull Parameter param, @NotNull Type type) {
+			return bind(manager, param, type).read(event, name);
+		}
+
+		@NotNull
+		@Override
+		public IOptionReader bind(@NotNull CommandManager<?, ?> manager, @NotNull Parameter param, @NotNull Type type) {
 			var component = ReflectionUtils.getComponentType(type);
+			var reader = manager.getOptionReader(param, component);
+
+			var isArray = ReflectionUtils.isArray(type, false);
+			var collection = ReflectionUtils.getClass(type);
+			var element = ReflectionUtils.getClass(component);
 
-			var array = event.getOptions().stream().filter(o -> o.getName().matches(Matcher.quoteReplacement(name) + "\\d+")).map(o -> manager.parseOption(event, o.getName(), param, component)).toList();
+			return (event, name) -> {
+				var array = new ArrayList<>();
+
+				for(var o : event.getOptions()) {
+					if(isElement(o.getName(), name)) array.add(reader.read(event, o.getName()));
+				}
+
+				return isArray ? array.toArray(i -> ReflectionUtils.createArray(component, i)) : createCollection(collection, element, array);
+			};
+		}
+
+		private static boolean isElement(String option, String name) {
+			if(option.length() <= name.length() || !option.startsWith(name)) return false;
+
+			for(int i = name.length(); i < option.length(); i++) {
+				if(!Character.isDigit(option.charAt(i))) return false;
+			}
 
-			return ReflectionUtils.isArray(type, false) ? array.toArray(i -> ReflectionUtils.createArray(component, i)) : createCollection(ReflectionUtils.getClass(type), ReflectionUtils.getClass(component), array);
+			return true;
 		}
 
 
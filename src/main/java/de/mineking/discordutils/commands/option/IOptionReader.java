@@ -0,0 +1,22 @@
+package de.mineking.discordutils.commands.option;
+
+import net.dv8tion.jda.api.events.interaction.command.GenericCommandInteractionEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An {@link IOptionParser} that is bound to a single parameter. Everything that does not depend on the event is resolved when binding.
+ *
+ * @see IOptionParser#bind(de.mineking.discordutils.commands.CommandManager, java.lang.reflect.Parameter, java.lang.reflect.Type)
+ * @see de.mineking.discordutils.commands.CommandManager#getOptionReader(java.lang.reflect.Parameter, java.lang.reflect.Type)
+ */
+@FunctionalInterface
+public interface IOptionReader {
+	/**
+	 * @param event The {@link GenericCommandInteractionEvent}
+	 * @param name  The name of the option
+	 * @return The resulting option
+	 */
+	@Nullable
+	Object read(@NotNull GenericCommandInteractionEvent event, @NotNull String name);
+}
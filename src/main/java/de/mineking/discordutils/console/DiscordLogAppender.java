@@ -0,0 +1,290 @@
+package de.mineking.discordutils.console;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import de.mineking.discordutils.DiscordUtils;
+import net.dv8tion.jda.api.events.session.ShutdownEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A logback appender that sends log events to {@link RedirectTarget}s. Unlike mirroring the console, this does not replace {@link System#out} and receives structured events.
+ * <p>
+ * Events below the threshold are discarded before they are formatted. The remaining events are collected and sent periodically, in one batch per {@link Level}. Events from the same logger with the same message pattern and stack trace are aggregated into a single {@link LogEvent} with a count.
+ * <p>
+ * Events from JDA's request loggers are never sent, because failures to send the log messages are logged there on JDA's own threads and would otherwise be sent again every interval.
+ * <p>
+ * Logback has to be the SLF4J backend to use this appender.
+ *
+ * @see DiscordUtils.Builder#mirrorLogs(Level, List, java.util.function.Consumer)
+ */
+public class DiscordLogAppender<B> extends UnsynchronizedAppenderBase<ILoggingEvent> {
+	private final static int MAX_STACKTRACE_LINES = 25;
+	private final static String[] ignoredLoggers = {"net.dv8tion.jda.api.requests.", "net.dv8tion.jda.internal.requests."};
+
+	private final DiscordUtils<B> discordUtils;
+	private final List<RedirectTarget<B>> targets;
+
+	private volatile ch.qos.logback.classic.Level threshold = ch.qos.logback.classic.Level.WARN;
+	private volatile long interval = 5000;
+	private volatile int maxQueued = 1000;
+	private volatile int fingerprintFrames = 5;
+
+	private final Queue<ILoggingEvent> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final ThreadLocal<Boolean> sending = new ThreadLocal<>();
+
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder sent = new LongAdder();
+
+	private ScheduledFuture<?> task;
+
+	/**
+	 * @param discordUtils The {@link DiscordUtils} instance
+	 * @param targets      The {@link RedirectTarget}s to send the log events to
+	 */
+	public DiscordLogAppender(@NotNull DiscordUtils<B> discordUtils, @NotNull List<RedirectTarget<B>> targets) {
+		Checks.notNull(discordUtils, "discordUtils");
+		Checks.notNull(targets, "targets");
+
+		this.discordUtils = discordUtils;
+		this.targets = List.copyOf(targets);
+
+		setName("DiscordUtils");
+	}
+
+	/**
+	 * @param level The minimum {@link Level} of events to send. Default is {@link Level#WARN}
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordLogAppender<B> setThreshold(@NotNull Level level) {
+		Checks.notNull(level, "level");
+
+		this.threshold = ch.qos.logback.classic.Level.toLevel(level.name());
+		return this;
+	}
+
+	/**
+	 * @param interval The interval to send collected events in. Has to be set before the appender is started. Default is 5 seconds
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordLogAppender<B> setInterval(@NotNull Duration interval) {
+		Checks.notNull(interval, "interval");
+		Checks.check(!interval.isNegative() && !interval.isZero(), "interval has to be positive");
+
+		this.interval = interval.toMillis();
+		return this;
+	}
+
+	/**
+	 * @param max The maximum number of events that wait for the next batch. Additional events are dropped. Default is 1000
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordLogAppender<B> setMaxQueued(int max) {
+		Checks.positive(max, "max");
+
+		this.maxQueued = max;
+		return this;
+	}
+
+	/**
+	 * @param frames The number of stack frames that are compared to decide whether two stack traces are the same. Default is 5
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordLogAppender<B> setFingerprintFrames(int frames) {
+		Checks.positive(frames, "frames");
+
+		this.fingerprintFrames = frames;
+		return this;
+	}
+
+	/**
+	 * @return The number of events that wait for the next batch
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * @return The total number of events that were dropped because the queue was full
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return The total number of events that were sent, counting aggregated events individually
+	 */
+	public long getSent() {
+		return sent.sum();
+	}
+
+	/**
+	 * Starts this appender and adds it to the root logger. It is removed automatically when JDA shuts down
+	 *
+	 * @return {@code this}
+	 * @throws IllegalStateException If logback is not the SLF4J backend
+	 */
+	@NotNull
+	public DiscordLogAppender<B> attach() {
+		if(!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) throw new IllegalStateException("Logback is not the SLF4J backend");
+
+		setContext(context);
+		start();
+
+		context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).addAppender(this);
+
+		discordUtils.getJDA().addEventListener((EventListener) event -> {
+			if(event instanceof ShutdownEvent) detach();
+		});
+
+		return this;
+	}
+
+	/**
+	 * Removes this appender from the root logger and stops it
+	 */
+	public void detach() {
+		if(getContext() instanceof LoggerContext context) context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).detachAppender(this);
+		stop();
+	}
+
+	@Override
+	public void start() {
+		if(isStarted()) return;
+
+		task = discordUtils.getScheduler().scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+		super.start();
+	}
+
+	@Override
+	public void stop() {
+		if(!isStarted()) return;
+
+		super.stop();
+		task.cancel(false);
+	}
+
+	@Override
+	protected void append(@NotNull ILoggingEvent event) {
+		//Events caused by sending log messages would cause an endless loop
+		if(!event.getLevel().isGreaterOrEqual(threshold) || sending.get() != null || isIgnored(event.getLoggerName())) return;
+
+		if(queued.incrementAndGet() > maxQueued) {
+			queued.decrementAndGet();
+			dropped.increment();
+			return;
+		}
+
+		event.prepareForDeferredProcessing();
+		queue.add(event);
+	}
+
+	private static boolean isIgnored(@Nullable String logger) {
+		if(logger == null) return false;
+
+		for(var prefix : ignoredLoggers) {
+			if(logger.startsWith(prefix)) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sends all collected events
+	 */
+	public synchronized void flush() {
+		sending.set(true);
+
+		try {
+			var batches = new EnumMap<Level, Map<Key, LogEvent>>(Level.class);
+
+			ILoggingEvent event;
+			while((event = queue.poll()) != null) {
+				queued.decrementAndGet();
+
+				var level = Level.valueOf(event.getLevel().toString());
+				var key = new Key(event.getLoggerName(), event.getMessage(), fingerprint(event.getThrowableProxy()));
+
+				//Only the first occurrence is formatted
+				var events = batches.computeIfAbsent(level, l -> new LinkedHashMap<>());
+				var existing = events.get(key);
+
+				events.put(key, existing == null ? toLogEvent(level, event) : new LogEvent(level, existing.logger(), existing.message(), existing.throwable(), existing.mdc(), existing.timestamp(), existing.count() + 1));
+			}
+
+			//EnumMap iterates in declaration order, so errors are sent first
+			batches.forEach((level, events) -> {
+				var list = List.copyOf(events.values());
+
+				for(var target : targets) {
+					try {
+						target.sendLogs(discordUtils, level, list);
+					} catch(Exception e) {
+						addError("Failed to send log events", e);
+					}
+				}
+
+				sent.add(list.stream().mapToInt(LogEvent::count).sum());
+			});
+		} finally {
+			sending.remove();
+		}
+	}
+
+	@NotNull
+	private static LogEvent toLogEvent(@NotNull Level level, @NotNull ILoggingEvent event) {
+		var mdc = event.getMDCPropertyMap();
+		return new LogEvent(level, event.getLoggerName(), event.getFormattedMessage(), toString(event.getThrowableProxy()), mdc == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(mdc)), Instant.ofEpochMilli(event.getTimeStamp()), 1);
+	}
+
+	@Nullable
+	private static String toString(@Nullable IThrowableProxy proxy) {
+		if(proxy == null) return null;
+
+		var lines = ThrowableProxyUtil.asString(proxy).lines().toList();
+		if(lines.size() <= MAX_STACKTRACE_LINES) return String.join("\n", lines);
+
+		return String.join("\n", lines.subList(0, MAX_STACKTRACE_LINES)) + "\n\t... " + (lines.size() - MAX_STACKTRACE_LINES) + " more lines";
+	}
+
+	@NotNull
+	private String fingerprint(@Nullable IThrowableProxy proxy) {
+		var result = new StringBuilder();
+
+		for(var current = proxy; current != null; current = current.getCause()) {
+			result.append(current.getClassName()).append(';');
+
+			var frames = current.getStackTraceElementProxyArray();
+			for(int i = 0; i < Math.min(frames.length, fingerprintFrames); i++) result.append(frames[i].getSTEAsString()).append(';');
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * Events with the same key are aggregated. The message pattern is used instead of the formatted message, so that events only differing in their arguments are aggregated as well
+	 */
+	private record Key(@NotNull String logger, @Nullable String pattern, @NotNull String throwable) {
+	}
+}
@@ -1,5 +1,7 @@
 package de.mineking.discordutils.console;
 
+import de.mineking.discordutils.DiscordUtils;
+import de.mineking.discordutils.TaskScheduler;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.utils.MarkdownUtil;
 import net.dv8tion.jda.api.utils.SplitUtil;
@@ -8,63 +10,352 @@ import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
+/**
+ * An {@link OutputStream} that sends its output as discord messages.
+ * <p>
+ * Writing only copies the bytes into a lock-free queue, so that logging threads are never blocked by discord. A single consumer decodes the queued bytes as UTF-8 and sends full messages as soon as enough output is available. Incomplete messages are sent after the update delay. If the consumer cannot keep up, output that exceeds the maximum queue size is dropped.
+ * <p>
+ * Messages are delivered to the handler with a rate limit (see {@link #setRateLimit(int, Duration)}). Small messages that wait for delivery are merged. If more messages are pending than allowed, the {@link OverflowPolicy} decides which output is dropped.
+ */
 public class DiscordOutputStream extends OutputStream {
 	public final static int additionalLength = "```ansi\n```".length() + 30;
+	private final static int MESSAGE_LENGTH = Message.MAX_CONTENT_LENGTH - additionalLength;
 
-	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+	private final ScheduledExecutorService ownExecutor;
+	private final TaskScheduler scheduler;
+	private final Executor executor;
+	private final ScheduledFuture<?> task;
 
 	private final Consumer<MessageCreateBuilder> handler;
-	private final StringBuffer buffer = new StringBuffer();
+	private final long delay;
 
-	private Instant last = Instant.now();
+	private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicBoolean draining = new AtomicBoolean();
+	private final AtomicBoolean drainScheduled = new AtomicBoolean();
+	private volatile int maxQueued = 1024 * 1024;
+
+	private volatile int messagesPerInterval = 5;
+	private volatile long interval = 5000;
+	private volatile int maxPending = 20;
+	private volatile OverflowPolicy overflow = OverflowPolicy.SUMMARIZE;
+
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private final LongAdder droppedBytes = new LongAdder();
+	private final LongAdder droppedLines = new LongAdder();
+	private final LongAdder sentBytes = new LongAdder();
+	private final LongAdder sentMessages = new LongAdder();
+
+	//Only accessed by the consumer
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private ByteBuffer input = ByteBuffer.allocate(256);
+	private final StringBuilder buffer = new StringBuilder();
+	private long last = System.currentTimeMillis();
+
+	private final Deque<String> outbox = new ArrayDeque<>();
+	private long windowStart;
+	private int windowMessages;
+	private long suppressed;
+
+	/**
+	 * @param handler   The handler for messages that can be sent
+	 * @param delay     The update delay in seconds
+	 * @param scheduler The {@link TaskScheduler} to check for pending output on
+	 */
+	public DiscordOutputStream(@NotNull Consumer<MessageCreateBuilder> handler, int delay, @NotNull TaskScheduler scheduler) {
+		Checks.notNull(handler, "handler");
+		Checks.notNull(scheduler, "scheduler");
+
+		this.handler = handler;
+		this.delay = TimeUnit.SECONDS.toMillis(delay);
+
+		this.ownExecutor = null;
+		this.scheduler = scheduler;
+		this.executor = scheduler;
+		this.task = scheduler.scheduleAtFixedRate(() -> drain(true), 0, delay, TimeUnit.SECONDS);
+	}
 
 	/**
+	 * Creates a stream with its own scheduler thread. Prefer {@link #DiscordOutputStream(Consumer, int, TaskScheduler)} with {@link DiscordUtils#getScheduler()}
+	 *
 	 * @param handler The handler for messages that can be sent
 	 * @param delay   The update delay in seconds
 	 */
 	public DiscordOutputStream(@NotNull Consumer<MessageCreateBuilder> handler, int delay) {
 		Checks.notNull(handler, "handler");
+
 		this.handler = handler;
+		this.delay = TimeUnit.SECONDS.toMillis(delay);
+
+		this.ownExecutor = Executors.newSingleThreadScheduledExecutor();
+		this.scheduler = null;
+		this.executor = ownExecutor;
+		this.task = ownExecutor.scheduleAtFixedRate(() -> drain(true), 0, delay, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param bytes The maximum number of bytes that wait for the consumer. Additional output is dropped. Default is 1 MiB
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordOutputStream setMaxQueued(int bytes) {
+		Checks.positive(bytes, "bytes");
+
+		this.maxQueued = bytes;
+		return this;
+	}
+
+	/**
+	 * @param messages The maximum number of messages that are sent per interval. Default is 5
+	 * @param interval The interval. Default is 5 seconds
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordOutputStream setRateLimit(int messages, @NotNull Duration interval) {
+		Checks.positive(messages, "messages");
+		Checks.notNull(interval, "interval");
+		Checks.check(!interval.isNegative() && !interval.isZero(), "interval has to be positive");
+
+		this.messagesPerInterval = messages;
+		this.interval = interval.toMillis();
+
+		return this;
+	}
+
+	/**
+	 * @param policy     The {@link OverflowPolicy} to apply if too many messages wait for delivery. Default is {@link OverflowPolicy#SUMMARIZE}
+	 * @param maxPending The maximum number of messages that wait for delivery. Default is 20
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DiscordOutputStream setOverflowPolicy(@NotNull OverflowPolicy policy, int maxPending) {
+		Checks.notNull(policy, "policy");
+		Checks.positive(maxPending, "maxPending");
+
+		this.overflow = policy;
+		this.maxPending = maxPending;
+
+		return this;
+	}
+
+	/**
+	 * @return The number of bytes that wait for the consumer
+	 */
+	public int getQueued() {
+		return queued.get();
+	}
+
+	/**
+	 * @return The total number of bytes that were dropped, either because the queue was full or because of the {@link OverflowPolicy}
+	 */
+	public long getDroppedBytes() {
+		return droppedBytes.sum();
+	}
 
-		executor.scheduleAtFixedRate(() -> {
-			if(buffer.isEmpty()) return;
-			if(last.plus(Duration.ofSeconds(delay)).isAfter(Instant.now())) return;
+	/**
+	 * @return The total number of lines that were dropped because of the {@link OverflowPolicy}
+	 */
+	public long getDroppedLines() {
+		return droppedLines.sum();
+	}
 
-			send(true);
-		}, 0, delay, TimeUnit.SECONDS);
+	/**
+	 * @return The total number of bytes that were sent to the handler
+	 */
+	public long getSentBytes() {
+		return sentBytes.sum();
 	}
 
-	private synchronized void send(boolean sendIncomplete) {
-		synchronized(buffer) {
-			for(var s : SplitUtil.split(buffer.toString(), Message.MAX_CONTENT_LENGTH - additionalLength, SplitUtil.Strategy.NEWLINE, SplitUtil.Strategy.WHITESPACE, SplitUtil.Strategy.ANYWHERE)) {
-				if(!sendIncomplete && s.length() < Message.MAX_CONTENT_LENGTH - additionalLength) return;
+	/**
+	 * @return The total number of messages that were sent to the handler
+	 */
+	public long getSentMessages() {
+		return sentMessages.sum();
+	}
+
+	@Override
+	public void write(int b) {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
 
-				handler.accept(new MessageCreateBuilder().setContent(MarkdownUtil.codeblock("ansi", s)));
-				buffer.delete(0, s.length());
+	@Override
+	public void write(byte @NotNull [] b, int off, int len) {
+		Checks.notNull(b, "b");
+		if(len <= 0) return;
+
+		if(queued.addAndGet(len) > maxQueued) {
+			queued.addAndGet(-len);
+			droppedBytes.add(len);
+			return;
+		}
+
+		queue.add(Arrays.copyOfRange(b, off, off + len));
+
+		if(queued.get() >= MESSAGE_LENGTH && !draining.get()) scheduleDrain();
+	}
+
+	/**
+	 * Decodes all queued output and sends the resulting messages. Only one thread drains at a time, other calls return immediately
+	 *
+	 * @param timer Whether this was triggered by the timer. Incomplete messages are only sent by the timer, if there was no message for the update delay
+	 */
+	private void drain(boolean timer) {
+		if(!draining.compareAndSet(false, true)) return;
+
+		try {
+			byte[] chunk;
+			while((chunk = queue.poll()) != null) {
+				queued.addAndGet(-chunk.length);
+				decode(chunk);
 			}
 
-			last = Instant.now();
+			send(timer && last + delay <= System.currentTimeMillis());
+			deliver();
+		} finally {
+			draining.set(false);
 		}
+
+		//Output that was written while draining would otherwise wait for the timer
+		if(queued.get() >= MESSAGE_LENGTH) scheduleDrain();
 	}
 
-	@Override
-	public synchronized void write(int b) {
-		synchronized(buffer) {
-			buffer.append((char) b);
+	/**
+	 * Submits a drain, unless one is already waiting for the executor. Without this, every write would submit a task until the consumer started
+	 */
+	private void scheduleDrain() {
+		if(!drainScheduled.compareAndSet(false, true)) return;
+
+		executor.execute(() -> {
+			drainScheduled.set(false);
+			drain(false);
+		});
+	}
 
-			if(buffer.length() > Message.MAX_CONTENT_LENGTH - additionalLength) send(false);
+	private void decode(byte @NotNull [] chunk) {
+		if(input.remaining() < chunk.length) {
+			var temp = ByteBuffer.allocate(input.position() + chunk.length);
+			temp.put(input.flip());
+			input = temp;
 		}
+
+		input.put(chunk).flip();
+
+		//A UTF-8 byte never decodes to more than one char
+		var chars = CharBuffer.allocate(input.remaining());
+		decoder.decode(input, chars, false);
+		buffer.append(chars.flip());
+
+		//Bytes of an incomplete character remain for the next chunk
+		input.compact();
+	}
+
+	private void send(boolean sendIncomplete) {
+		if(buffer.isEmpty()) return;
+
+		for(var s : SplitUtil.split(buffer.toString(), MESSAGE_LENGTH, SplitUtil.Strategy.NEWLINE, SplitUtil.Strategy.WHITESPACE, SplitUtil.Strategy.ANYWHERE)) {
+			if(!sendIncomplete && s.length() < MESSAGE_LENGTH) return;
+
+			push(s);
+			buffer.delete(0, s.length());
+
+			last = System.currentTimeMillis();
+		}
+	}
+
+	private void push(@NotNull String message) {
+		if(outbox.size() >= maxPending) {
+			//SUMMARIZE keeps the beginning of a burst, which usually contains the cause, and drops the rest
+			var removed = overflow == OverflowPolicy.DROP_OLDEST ? outbox.pollFirst() : message;
+			var lines = removed.lines().count();
+
+			droppedBytes.add(removed.getBytes(StandardCharsets.UTF_8).length);
+			droppedLines.add(lines);
+
+			if(overflow == OverflowPolicy.SUMMARIZE) {
+				suppressed += lines;
+				return;
+			}
+		}
+
+		outbox.add(message);
+	}
+
+	/**
+	 * Sends as many pending messages as the rate limit allows. Consecutive messages are merged if they fit into a single message
+	 */
+	private void deliver() {
+		var now = System.currentTimeMillis();
+
+		if(now - windowStart >= interval) {
+			windowStart = now;
+			windowMessages = 0;
+		}
+
+		while(!outbox.isEmpty() && windowMessages < messagesPerInterval) {
+			var content = new StringBuilder(outbox.poll());
+			while(!outbox.isEmpty() && content.length() + outbox.peek().length() + 1 <= MESSAGE_LENGTH) content.append('\n').append(outbox.poll());
+
+			if(suppressed > 0 && outbox.isEmpty()) {
+				var notice = "\n... " + suppressed + " lines suppressed ...";
+
+				if(content.length() + notice.length() <= MESSAGE_LENGTH) content.append(notice);
+				else outbox.add(notice.substring(1));
+
+				suppressed = 0;
+			}
+
+			windowMessages++;
+			sentMessages.increment();
+			sentBytes.add(content.toString().getBytes(StandardCharsets.UTF_8).length);
+
+			handler.accept(new MessageCreateBuilder().setContent(MarkdownUtil.codeblock("ansi", content.toString())));
+		}
+
+		//Pending messages are delivered when the next interval starts
+		if(!outbox.isEmpty() && !scheduled.getAndSet(true)) schedule(() -> {
+			scheduled.set(false);
+			drain(false);
+		}, windowStart + interval - now);
+	}
+
+	private void schedule(@NotNull Runnable task, long delay) {
+		if(scheduler != null) scheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+		else ownExecutor.schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+
+	public enum OverflowPolicy {
+		/**
+		 * Drops the oldest pending messages
+		 */
+		DROP_OLDEST,
+		/**
+		 * Keeps the pending messages and drops new ones. The number of dropped lines is appended to the last message
+		 */
+		SUMMARIZE
 	}
 
 	@Override
 	public void close() {
-		executor.shutdownNow();
+		task.cancel(false);
+		if(ownExecutor != null) ownExecutor.shutdownNow();
 	}
 }
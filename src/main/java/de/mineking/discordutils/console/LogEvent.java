@@ -0,0 +1,62 @@
+package de.mineking.discordutils.console;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.utils.MarkdownUtil;
+import net.dv8tion.jda.api.utils.SplitUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.event.Level;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A log event that is sent to {@link RedirectTarget}s by the {@link DiscordLogAppender}. Repeated events are aggregated into a single event.
+ *
+ * @param level     The {@link Level}
+ * @param logger    The name of the logger
+ * @param message   The formatted message of the first occurrence
+ * @param throwable The stack trace or {@code null}
+ * @param mdc       The MDC of the first occurrence
+ * @param timestamp The time of the first occurrence
+ * @param count     The number of occurrences
+ */
+public record LogEvent(@NotNull Level level, @NotNull String logger, @NotNull String message, @Nullable String throwable,
+					   @NotNull Map<String, String> mdc, @NotNull Instant timestamp, int count) {
+	private final static DateTimeFormatter time = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+	/**
+	 * @return A plain text representation of this event
+	 */
+	@NotNull
+	public String format() {
+		var result = new StringBuilder()
+				.append('[').append(time.format(timestamp)).append("] ")
+				.append(level).append(' ')
+				.append(logger.substring(logger.lastIndexOf('.') + 1))
+				.append(" - ").append(message);
+
+		if(count > 1) result.append(" (x").append(count).append(')');
+		if(!mdc.isEmpty()) result.append(' ').append(mdc.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).collect(Collectors.joining(", ", "{", "}")));
+		if(throwable != null) result.append('\n').append(throwable);
+
+		return result.toString();
+	}
+
+	/**
+	 * @param events The events
+	 * @return The contents of the messages to send for the provided events
+	 */
+	@NotNull
+	public static List<String> toMessages(@NotNull List<LogEvent> events) {
+		var content = events.stream().map(LogEvent::format).collect(Collectors.joining("\n"));
+
+		return SplitUtil.split(content, Message.MAX_CONTENT_LENGTH - DiscordOutputStream.additionalLength, SplitUtil.Strategy.NEWLINE, SplitUtil.Strategy.WHITESPACE, SplitUtil.Strategy.ANYWHERE).stream()
+				.map(s -> MarkdownUtil.codeblock("ansi", s))
+				.toList();
+	}
+}
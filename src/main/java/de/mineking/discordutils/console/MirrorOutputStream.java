@@ -33,6 +33,11 @@ public class MirrorOutputStream extends OutputStream {
 		for(var o : mirror) o.write(b);
 	}
 
+	@Override
+	public void write(byte @NotNull [] b, int off, int len) throws IOException {
+		for(var o : mirror) o.write(b, off, len);
+	}
+
 	@Override
 	public void flush() throws IOException {
 		for(var o : mirror) o.flush();
@@ -12,7 +12,9 @@ import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.event.Level;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -20,11 +22,45 @@ import java.util.function.Function;
 public interface RedirectTarget<B> {
 	void sendMessage(@NotNull DiscordUtils<B> discordUtils, @NotNull MessageCreateBuilder message);
 
+	/**
+	 * Sends a batch of log events from the {@link DiscordLogAppender}. By default, the events are formatted and sent with {@link #sendMessage(DiscordUtils, MessageCreateBuilder)}
+	 *
+	 * @param discordUtils The {@link DiscordUtils} instance
+	 * @param level        The {@link Level} of all events in this batch
+	 * @param events       The {@link LogEvent}s
+	 */
+	default void sendLogs(@NotNull DiscordUtils<B> discordUtils, @NotNull Level level, @NotNull List<LogEvent> events) {
+		for(var message : LogEvent.toMessages(events)) sendMessage(discordUtils, new MessageCreateBuilder().setContent(message));
+	}
+
+	/**
+	 * @param original The {@link RedirectTarget} to send the messages to
+	 * @param role     A function to get the role to ping
+	 * @return A {@link RedirectTarget} that pings the role for error logs. For log events, this uses the {@link Level}. For mirrored console output, messages containing "ERROR" cause a ping
+	 */
 	@NotNull
 	static <B> RedirectTarget<B> pingRoleOnError(@NotNull RedirectTarget<B> original, @NotNull Function<B, Optional<Role>> role) {
-		return (discordUtils, message) -> {
-			Optional<Role> r = role.apply(discordUtils.getBot());
-			original.sendMessage(discordUtils, r.isPresent() && message.getContent().contains("ERROR") ? message.setContent(r.get().getAsMention() + message.getContent()) : message);
+		Checks.notNull(original, "original");
+		Checks.notNull(role, "role");
+
+		return new RedirectTarget<>() {
+			@Override
+			public void sendMessage(@NotNull DiscordUtils<B> discordUtils, @NotNull MessageCreateBuilder message) {
+				Optional<Role> r = role.apply(discordUtils.getBot());
+				original.sendMessage(discordUtils, r.isPresent() && message.getContent().contains("ERROR") ? message.setContent(r.get().getAsMention() + message.getContent()) : message);
+			}
+
+			@Override
+			public void sendLogs(@NotNull DiscordUtils<B> discordUtils, @NotNull Level level, @NotNull List<LogEvent> events) {
+				Optional<Role> r = level == Level.ERROR ? role.apply(discordUtils.getBot()) : Optional.empty();
+				if(r.isEmpty()) {
+					original.sendLogs(discordUtils, level, events);
+					return;
+				}
+
+				var messages = LogEvent.toMessages(events);
+				for(int i = 0; i < messages.size(); i++) original.sendMessage(discordUtils, new MessageCreateBuilder().setContent(i == 0 ? r.get().getAsMention() + messages.get(i) : messages.get(i)));
+			}
 		};
 	}
 
@@ -26,6 +26,17 @@ public abstract class EventHandler<T extends GenericEvent> implements IEventHand
 		this(type, false);
 	}
 
+	@NotNull
+	@Override
+	public Class<T> getEventType() {
+		return type;
+	}
+
+	@Override
+	public boolean isOneShot() {
+		return remove;
+	}
+
 	@Override
 	public boolean accepts(GenericEvent event) {
 		return type.isAssignableFrom(event.getClass());
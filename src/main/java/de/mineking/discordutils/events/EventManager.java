@@ -2,34 +2,54 @@ package de.mineking.discordutils.events;
 
 import de.mineking.discordutils.Manager;
 import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 public class EventManager extends Manager {
 	public final static Logger logger = LoggerFactory.getLogger(EventManager.class);
 
-	@SuppressWarnings("rawtypes")
-	private final Set<IEventHandler> eventHandlers = new HashSet<>();
+	private final HandlerIndex index = new HandlerIndex();
 
 	/**
+	 * Adds a handler. If the handler provides an {@link IdFilter}, it is only evaluated for component and modal interactions with a matching custom id.
+	 * <p>
+	 * This method is thread-safe and may be called while events are dispatched.
+	 *
 	 * @param handler The {@link IEventHandler} to add
+	 * @see IEventHandler#getIdFilter()
 	 */
-	public void addEventHandler(IEventHandler<?> handler) {
-		eventHandlers.add(handler);
+	public void addEventHandler(@NotNull IEventHandler<?> handler) {
+		Checks.notNull(handler, "handler");
+		index.add(handler.getIdFilter(), handler);
 	}
 
 	/**
+	 * Adds a handler that is only evaluated for component and modal interactions with a custom id starting with the provided prefix. Lookup is done with a prefix trie, so the number of prefixed handlers does not affect the dispatch of other events.
+	 * <p>
+	 * This method is thread-safe and may be called while events are dispatched.
+	 *
+	 * @param prefix  The custom id prefix. If this is {@code null}, the handler is evaluated for all events
+	 * @param handler The {@link IEventHandler} to add
+	 */
+	public void addEventHandler(@Nullable String prefix, @NotNull IEventHandler<?> handler) {
+		Checks.notNull(handler, "handler");
+		index.add(prefix == null ? null : IdFilter.prefix(prefix), handler);
+	}
+
+	/**
+	 * This method is thread-safe and may be called while events are dispatched. The handler will not receive any events after this method returns.
+	 *
 	 * @param handler The {@link IEventHandler} to remove
 	 */
 	public void removeEventHandler(IEventHandler<?> handler) {
-		eventHandlers.remove(handler);
+		if(handler != null) index.remove(handler);
 	}
 
 	public void registerListener(@NotNull Class<?> type, @NotNull Supplier<Object> instance) {
@@ -38,14 +58,13 @@ public class EventManager extends Manager {
 			if(listener == null) continue;
 
 			try {
+				var invoker = getManager().<Object>compileMethod(m, (x, mp) -> event -> mp.getType().isInstance(event) ? event : null);
+
 				addEventHandler(getManager().createInstance(listener.type(), (i, p) -> {
 					if(p.getName().equals("filter")) return listener.filter();
 					else if(p.getName().equals("handler")) return (Consumer<?>) event -> {
 						try {
-							getManager().invokeMethod(m, instance.get(), (x, mp) -> {
-								if(mp.getType().isAssignableFrom(event.getClass())) return event;
-								else return null;
-							});
+							invoker.invoke(instance.get(), event);
 						} catch(InvocationTargetException e) {
 							logger.error("An error occurred in listener method", e.getCause());
 						} catch(Exception e) {
@@ -66,9 +85,28 @@ public class EventManager extends Manager {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void onGenericEvent(@NotNull GenericEvent event) {
-		new HashSet<>(eventHandlers).removeIf(handler -> handler.accepts(event) && handler.handle(this, event));
+		for(var handler : index.getHandlers(event.getClass())) handleEvent(handler, event);
+
+		var id = HandlerIndex.getCustomId(event);
+		if(id == null) return;
+
+		for(var handler : index.getHandlers(id)) handleEvent(handler, event);
+		index.forEachPrefixed(id, handler -> handleEvent(handler, event));
+	}
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private void handleEvent(HandlerIndex.Registration registration, GenericEvent event) {
+		IEventHandler handler = registration.getHandler();
+		if(!registration.isActive() || !handler.accepts(event)) return;
+
+		if(handler.isOneShot()) {
+			//Only the thread that deactivates the registration may handle the event
+			if(!registration.deactivate()) return;
+
+			index.remove(registration);
+			handler.handle(this, event);
+		} else if(handler.handle(this, event)) index.remove(registration);
 	}
 }
@@ -0,0 +1,218 @@
+package de.mineking.discordutils.events;
+
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Registry of {@link IEventHandler}s, indexed by event type and custom id.
+ * <p>
+ * All lookups are lock-free: handlers without {@link IdFilter} live in an immutable snapshot that is swapped atomically on every change. Handlers for an exact id live in copy-on-write arrays in a hash map, handlers for an id prefix in copy-on-write arrays in a prefix trie.
+ */
+@SuppressWarnings("rawtypes")
+final class HandlerIndex {
+	private final static Registration[] empty = new Registration[0];
+
+	private final Map<IEventHandler, Registration> registrations = new ConcurrentHashMap<>();
+
+	private final AtomicReference<Snapshot> global = new AtomicReference<>(new Snapshot(empty));
+	private final Map<String, Registration[]> literal = new ConcurrentHashMap<>();
+	private final Node prefixed = new Node();
+
+	/**
+	 * @param filter  The {@link IdFilter} to route events by or {@code null}
+	 * @param handler The handler to add. If the handler is already registered, this does nothing
+	 */
+	void add(@Nullable IdFilter filter, @NotNull IEventHandler handler) {
+		var registration = new Registration(handler, filter == null || filter.isAny() ? null : filter);
+		if(registrations.putIfAbsent(handler, registration) != null) return;
+
+		link(registration);
+
+		//The handler might have been removed concurrently before it was inserted above
+		if(!registration.isActive()) unlink(registration);
+	}
+
+	/**
+	 * @param handler The handler to remove
+	 */
+	void remove(@NotNull IEventHandler handler) {
+		var registration = registrations.remove(handler);
+		if(registration == null) return;
+
+		registration.deactivate();
+		unlink(registration);
+	}
+
+	/**
+	 * @param registration The {@link Registration} to remove. Only removes the handler if it is still registered with the provided registration
+	 */
+	void remove(@NotNull Registration registration) {
+		registration.deactivate();
+		if(registrations.remove(registration.handler, registration)) unlink(registration);
+	}
+
+	private void link(Registration registration) {
+		var filter = registration.filter;
+
+		if(filter == null || filter.getPrefix().isEmpty()) global.updateAndGet(s -> s.with(registration));
+		else if(filter.isExact()) literal.merge(filter.getPrefix(), new Registration[] { registration }, HandlerIndex::concat);
+		else prefixed.find(filter.getPrefix(), true).add(registration);
+	}
+
+	private void unlink(Registration registration) {
+		var filter = registration.filter;
+
+		if(filter == null || filter.getPrefix().isEmpty()) global.updateAndGet(s -> s.without(registration));
+		else if(filter.isExact()) literal.computeIfPresent(filter.getPrefix(), (k, v) -> {
+			var temp = remove(v, registration);
+			return temp.length == 0 ? null : temp;
+		});
+		else {
+			var node = prefixed.find(filter.getPrefix(), false);
+			if(node != null) node.remove(registration);
+		}
+	}
+
+	/**
+	 * @param type The java type of the event
+	 * @return All handlers without id filter that handle events of the provided type. The result is computed once per type and snapshot
+	 */
+	@NotNull
+	Registration[] getHandlers(@NotNull Class<?> type) {
+		return global.get().resolve(type);
+	}
+
+	/**
+	 * @param id The custom id
+	 * @return All handlers registered for exactly the provided id
+	 */
+	@NotNull
+	Registration[] getHandlers(@NotNull String id) {
+		return literal.getOrDefault(id, empty);
+	}
+
+	/**
+	 * Calls the provided consumer for all handlers with a prefix of the provided id. This walks the prefix trie once, so the cost only depends on the length of the matching prefixes.
+	 *
+	 * @param id      The custom id
+	 * @param handler The consumer to call
+	 */
+	void forEachPrefixed(@NotNull String id, @NotNull Consumer<Registration> handler) {
+		var node = prefixed;
+
+		for(int i = 0; i < id.length(); i++) {
+			node = node.children.get(id.charAt(i));
+			if(node == null) return;
+
+			for(var r : node.handlers) handler.accept(r);
+		}
+	}
+
+	/**
+	 * @param event The event
+	 * @return The component or modal id of the provided event or {@code null}
+	 */
+	@Nullable
+	static String getCustomId(@NotNull Object event) {
+		if(event instanceof GenericComponentInteractionCreateEvent e) return e.getComponentId();
+		else if(event instanceof ModalInteractionEvent e) return e.getModalId();
+		else return null;
+	}
+
+	private static Registration[] concat(Registration[] a, Registration[] b) {
+		var result = Arrays.copyOf(a, a.length + b.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+
+	private static Registration[] remove(Registration[] array, Registration registration) {
+		return Arrays.stream(array).filter(r -> r != registration).toArray(Registration[]::new);
+	}
+
+	private static final class Node {
+		private final Map<Character, Node> children = new ConcurrentHashMap<>();
+		private volatile Registration[] handlers = empty;
+
+		Node find(String prefix, boolean create) {
+			var node = this;
+
+			for(int i = 0; i < prefix.length() && node != null; i++) {
+				node = create ? node.children.computeIfAbsent(prefix.charAt(i), c -> new Node()) : node.children.get(prefix.charAt(i));
+			}
+
+			return node;
+		}
+
+		synchronized void add(Registration registration) {
+			handlers = concat(handlers, new Registration[] { registration });
+		}
+
+		synchronized void remove(Registration registration) {
+			handlers = HandlerIndex.remove(handlers, registration);
+		}
+	}
+
+	static final class Registration {
+		private final IEventHandler handler;
+		private final IdFilter filter;
+
+		private final AtomicBoolean active = new AtomicBoolean(true);
+
+		private Registration(IEventHandler handler, IdFilter filter) {
+			this.handler = handler;
+			this.filter = filter;
+		}
+
+		@NotNull
+		IEventHandler getHandler() {
+			return handler;
+		}
+
+		boolean isActive() {
+			return active.get();
+		}
+
+		/**
+		 * @return Whether this call deactivated the registration. Only a single caller can ever receive {@code true}
+		 */
+		boolean deactivate() {
+			return active.compareAndSet(true, false);
+		}
+	}
+
+	private record Snapshot(Registration[] handlers, Map<Class<?>, Registration[]> resolved) {
+		Snapshot(Registration[] handlers) {
+			this(handlers, new ConcurrentHashMap<>());
+		}
+
+		Registration[] resolve(Class<?> type) {
+			var result = resolved.get(type);
+
+			if(result == null) {
+				result = Arrays.stream(handlers).filter(r -> r.handler.getEventType().isAssignableFrom(type)).toArray(Registration[]::new);
+
+				var temp = resolved.putIfAbsent(type, result);
+				if(temp != null) result = temp;
+			}
+
+			return result;
+		}
+
+		Snapshot with(Registration registration) {
+			return new Snapshot(concat(handlers, new Registration[] { registration }));
+		}
+
+		Snapshot without(Registration registration) {
+			return new Snapshot(remove(handlers, registration));
+		}
+	}
+}
@@ -1,11 +1,36 @@
 package de.mineking.discordutils.events;
 
 import net.dv8tion.jda.api.events.GenericEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @see EventHandler
  */
 public interface IEventHandler<T extends GenericEvent> {
+	/**
+	 * @return The java type of the events this handler is interested in. The {@link EventManager} uses this to skip handlers that can never accept an event. {@link #accepts(GenericEvent)} is still called for all remaining handlers
+	 */
+	@NotNull
+	default Class<? extends GenericEvent> getEventType() {
+		return GenericEvent.class;
+	}
+
+	/**
+	 * @return An {@link IdFilter} for component and modal ids or {@code null}. If present, the {@link EventManager} only evaluates this handler for component and modal interactions with an id that matches this filter and looks it up by id instead of testing it for every event
+	 */
+	@Nullable
+	default IdFilter getIdFilter() {
+		return null;
+	}
+
+	/**
+	 * @return Whether this handler should only handle a single event. The {@link EventManager} guarantees that such handlers are called at most once, even if matching events arrive on multiple threads at the same time
+	 */
+	default boolean isOneShot() {
+		return false;
+	}
+
 	/**
 	 * @param event The event that was fired
 	 * @return Whether this handler accepts the provided event
@@ -0,0 +1,148 @@
+package de.mineking.discordutils.events;
+
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Pattern;
+
+/**
+ * A precompiled filter for component and modal ids. Filters that are plain literals or literal prefixes never touch the regex engine. The {@link EventManager} uses {@link #getPrefix()} and {@link #isExact()} to look up matching handlers by id.
+ *
+ * @see #of(String)
+ */
+public final class IdFilter {
+	private final static IdFilter any = new IdFilter("", false, null, "");
+
+	private final String prefix;
+	private final boolean exact;
+	private final Pattern pattern;
+
+	private final String source;
+
+	private IdFilter(String prefix, boolean exact, Pattern pattern, String source) {
+		this.prefix = prefix;
+		this.exact = exact;
+		this.pattern = pattern;
+		this.source = source;
+	}
+
+	/**
+	 * @return An {@link IdFilter} that matches all ids
+	 */
+	@NotNull
+	public static IdFilter any() {
+		return any;
+	}
+
+	/**
+	 * @param id The id to match
+	 * @return An {@link IdFilter} that only matches exactly the provided id
+	 */
+	@NotNull
+	public static IdFilter literal(@NotNull String id) {
+		Checks.notNull(id, "id");
+		return new IdFilter(id, true, null, Pattern.quote(id));
+	}
+
+	/**
+	 * @param prefix The prefix to match
+	 * @return An {@link IdFilter} that matches all ids starting with the provided prefix
+	 */
+	@NotNull
+	public static IdFilter prefix(@NotNull String prefix) {
+		Checks.notNull(prefix, "prefix");
+		return prefix.isEmpty() ? any : new IdFilter(prefix, false, null, Pattern.quote(prefix) + ".*");
+	}
+
+	/**
+	 * Compiles a regex filter. Plain literals (like {@code "button"}) and literal prefixes (like {@code "menu:.*"}) are detected and matched without regex.
+	 *
+	 * @param regex The regex that ids have to match. An empty string matches all ids
+	 * @return The resulting {@link IdFilter}
+	 */
+	@NotNull
+	public static IdFilter of(@NotNull String regex) {
+		Checks.notNull(regex, "regex");
+
+		if(regex.isEmpty()) return any;
+
+		var prefix = new StringBuilder();
+		var i = 0;
+
+		while(i < regex.length()) {
+			var c = regex.charAt(i);
+			var next = i + 1;
+
+			if(c == '\\') {
+				//Escaped letters and digits have special meaning (like \d or \Q)
+				if(next >= regex.length() || Character.isLetterOrDigit(regex.charAt(next))) break;
+				c = regex.charAt(next++);
+			} else if(".[]{}()*+?^$|".indexOf(c) >= 0) break;
+
+			//A quantified character is not part of the literal prefix
+			if(next < regex.length() && "?*+{".indexOf(regex.charAt(next)) >= 0) break;
+
+			prefix.append(c);
+			i = next;
+		}
+
+		var rest = regex.substring(i);
+
+		if(rest.isEmpty()) return new IdFilter(prefix.toString(), true, null, regex);
+		if(rest.equals(".*")) return prefix.isEmpty() ? any : new IdFilter(prefix.toString(), false, null, regex);
+
+		//An alternation can make any part of the prefix optional
+		return new IdFilter(hasAlternation(regex) ? "" : prefix.toString(), false, Pattern.compile(regex), regex);
+	}
+
+	private static boolean hasAlternation(String regex) {
+		for(int i = 0; i < regex.length(); i++) {
+			var c = regex.charAt(i);
+
+			if(c == '\\') i++;
+			else if(c == '|') return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return A literal prefix that all matching ids start with. May be empty
+	 */
+	@NotNull
+	public String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * @return Whether this filter only matches exactly {@link #getPrefix()}
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * @return Whether this filter matches all ids
+	 */
+	public boolean isAny() {
+		return this == any;
+	}
+
+	/**
+	 * @param id The id to test
+	 * @return Whether the provided id matches this filter
+	 */
+	public boolean matches(@Nullable String id) {
+		if(id == null) return false;
+		if(exact) return id.equals(prefix);
+		if(!id.startsWith(prefix)) return false;
+
+		return pattern == null || pattern.matcher(id).matches();
+	}
+
+	@Override
+	public String toString() {
+		return source;
+	}
+}
@@ -15,7 +15,7 @@ public @interface Listener {
 	Class<? extends IEventHandler<?>> type();
 
 	/**
-	 * A string that filters which events to handle
+	 * A string that filters which events to handle. For the default handlers, this is a regex for the custom id, see {@link IdFilter#of(String)}
 	 */
 	String filter() default "";
 }
@@ -1,5 +1,6 @@
 package de.mineking.discordutils.events.handlers;
 
+import de.mineking.discordutils.events.IdFilter;
 import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
@@ -7,21 +8,39 @@ import org.jetbrains.annotations.NotNull;
 import java.util.function.Consumer;
 
 public class ComponentHandler<T extends GenericComponentInteractionCreateEvent> extends FilteredEventHandler<T> {
+	private final IdFilter filter;
 	private final Consumer<T> handler;
 
 	/**
 	 * @param type    The java type of the event to handle
-	 * @param filter  A filter
+	 * @param filter  Regex for custom id. The regex is compiled once
 	 * @param handler The handler
 	 */
 	public ComponentHandler(@NotNull Class<T> type, @NotNull String filter, @NotNull Consumer<T> handler) {
-		super(type, event -> filter.isEmpty() || event.getComponentId().matches(filter), false);
+		this(type, IdFilter.of(filter), handler);
+	}
 
+	/**
+	 * @param type    The java type of the event to handle
+	 * @param filter  The {@link IdFilter} for custom id
+	 * @param handler The handler
+	 */
+	public ComponentHandler(@NotNull Class<T> type, @NotNull IdFilter filter, @NotNull Consumer<T> handler) {
+		super(type, event -> filter.matches(event.getComponentId()), false);
+
+		Checks.notNull(filter, "filter");
 		Checks.notNull(handler, "handler");
 
+		this.filter = filter;
 		this.handler = handler;
 	}
 
+	@NotNull
+	@Override
+	public IdFilter getIdFilter() {
+		return filter;
+	}
+
 	@Override
 	public void handleEvent(T event) {
 		handler.accept(event);
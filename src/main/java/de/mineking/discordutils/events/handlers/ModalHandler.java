@@ -1,5 +1,6 @@
 package de.mineking.discordutils.events.handlers;
 
+import de.mineking.discordutils.events.IdFilter;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
@@ -7,20 +8,37 @@ import org.jetbrains.annotations.NotNull;
 import java.util.function.Consumer;
 
 public class ModalHandler extends FilteredEventHandler<ModalInteractionEvent> {
+	private final IdFilter filter;
 	private final Consumer<ModalInteractionEvent> handler;
 
 	/**
-	 * @param filter  Regex for custom id
+	 * @param filter  Regex for custom id. The regex is compiled once
 	 * @param handler The handler
 	 */
 	public ModalHandler(@NotNull String filter, @NotNull Consumer<ModalInteractionEvent> handler) {
-		super(ModalInteractionEvent.class, event -> filter.isEmpty() || event.getModalId().matches(filter), false);
+		this(IdFilter.of(filter), handler);
+	}
+
+	/**
+	 * @param filter  The {@link IdFilter} for custom id
+	 * @param handler The handler
+	 */
+	public ModalHandler(@NotNull IdFilter filter, @NotNull Consumer<ModalInteractionEvent> handler) {
+		super(ModalInteractionEvent.class, event -> filter.matches(event.getModalId()), false);
 
+		Checks.notNull(filter, "filter");
 		Checks.notNull(handler, "handler");
 
+		this.filter = filter;
 		this.handler = handler;
 	}
 
+	@NotNull
+	@Override
+	public IdFilter getIdFilter() {
+		return filter;
+	}
+
 	@Override
 	public void handleEvent(ModalInteractionEvent event) {
 		handler.accept(event);
@@ -46,7 +46,7 @@ public class ListCommand<C extends ICommandContext> extends Command<C> {
 
 		var state = menu.get().createState();
 
-		state.setState("page", context.getEvent().getOption(pageOption.getName(), 1, OptionMapping::getAsInt));
+		state.setState(ListManager.pageState, context.getEvent().getOption(pageOption.getName(), 1, OptionMapping::getAsInt));
 
 		this.state.accept(context, state);
 		state.display(context.getEvent());
@@ -13,6 +13,7 @@ import de.mineking.discordutils.ui.components.types.ComponentRow;
 import de.mineking.discordutils.ui.state.DataState;
 import de.mineking.discordutils.ui.state.MessageSendState;
 import de.mineking.discordutils.ui.state.SendState;
+import de.mineking.discordutils.ui.state.StateKey;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
@@ -26,6 +27,11 @@ import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 public class ListManager<C extends ICommandContext> extends Manager {
+	/**
+	 * The state holding the current page of list menus
+	 */
+	public final static StateKey.IntKey pageState = StateKey.ofInt("page");
+
 	private final UIManager uiManager;
 	private final CommandManager<C, ?> commandManager;
 
@@ -66,18 +72,18 @@ public class ListManager<C extends ICommandContext> extends Manager {
 		var components = new ArrayList<ComponentRow>();
 
 		components.add(ComponentRow.of(new ButtonComponent("first", ButtonColor.GRAY, Emoji.fromUnicode("⏪")).appendHandler(s -> {
-			s.setState("page", 1);
+			s.setState(pageState, 1);
 			s.update();
-		}).asDisabled(s -> s.getState("page", int.class) == 1), new ButtonComponent("back", ButtonColor.GRAY, Emoji.fromUnicode("⬅")).appendHandler(s -> {
-			s.setState("page", int.class, p -> p - 1);
+		}).asDisabled(s -> s.getState(pageState) == 1), new ButtonComponent("back", ButtonColor.GRAY, Emoji.fromUnicode("⬅")).appendHandler(s -> {
+			s.setState(pageState, s.getState(pageState) - 1);
 			s.update();
-		}).asDisabled(s -> s.getState("page", int.class) == 1), new ButtonComponent("page", ButtonColor.GRAY, (TextLabel) state -> "\uD83D\uDCD6 " + state.getState("page", int.class) + "/" + state.getCache("maxpage")).asDisabled(true), new ButtonComponent("next", ButtonColor.GRAY, Emoji.fromUnicode("➡")).appendHandler(s -> {
-			s.setState("page", int.class, p -> p + 1);
+		}).asDisabled(s -> s.getState(pageState) == 1), new ButtonComponent("page", ButtonColor.GRAY, (TextLabel) state -> "\uD83D\uDCD6 " + state.getState(pageState) + "/" + state.getCache("maxpage")).asDisabled(true), new ButtonComponent("next", ButtonColor.GRAY, Emoji.fromUnicode("➡")).appendHandler(s -> {
+			s.setState(pageState, s.getState(pageState) + 1);
 			s.update();
-		}).asDisabled(s -> s.getState("page", int.class) == s.getCache("maxpage")), new ButtonComponent("last", ButtonColor.GRAY, Emoji.fromUnicode("⏩")).appendHandler(s -> {
-			s.setState("page", Integer.MAX_VALUE);
+		}).asDisabled(s -> s.getState(pageState) == s.<Integer>getCache("maxpage")), new ButtonComponent("last", ButtonColor.GRAY, Emoji.fromUnicode("⏩")).appendHandler(s -> {
+			s.setState(pageState, Integer.MAX_VALUE);
 			s.update();
-		}).asDisabled(s -> s.getState("page", int.class) == s.getCache("maxpage"))));
+		}).asDisabled(s -> s.getState(pageState) == s.<Integer>getCache("maxpage"))));
 		components.addAll(Arrays.asList(additionalComponents));
 
 		return uiManager.createMenu("list." + path, (state, rows) -> state.<Listable<T>>getCache("object").render(state.getCache("context")).buildMessage(state, rows), components).cache(s -> {
@@ -94,7 +100,7 @@ public class ListManager<C extends ICommandContext> extends Manager {
 			s.setCache("context", context);
 
 			setEntries(s);
-		}).effect("page", (state, name, old, n) -> {
+		}).effect(pageState.getName(), (state, name, old, n) -> {
 			if (old != null && (int) old == (int) n) return;
 			setEntries((DataState<MessageMenu>) state);
 		});
@@ -106,8 +112,8 @@ public class ListManager<C extends ICommandContext> extends Manager {
 
 		var o = state.<Listable<T>>getCache("object");
 
-		int page = Math.max(Math.min(state.getState("page", int.class), state.getCache("maxpage")), 1);
-		state.setState("page", page);
+		int page = Math.max(Math.min(state.getState(pageState), state.<Integer>getCache("maxpage")), 1);
+		state.setState(pageState, page);
 
 		var entries = new ArrayList<>(o.getEntries(state, context));
 
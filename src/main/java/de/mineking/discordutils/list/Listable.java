@@ -53,7 +53,7 @@ public interface Listable<T extends ListEntry> {
 	default MessageEmbed buildEmbed(@NotNull DataState<MessageMenu> state, @NotNull ListContext<T> context) {
 		var embed = createEmbed(state, context);
 
-		var page = state.getState("page", int.class);
+		var page = state.getState(ListManager.pageState);
 
 		if(!context.entries().isEmpty()) {
 			int i = ((page - 1) * entriesPerPage());
@@ -22,6 +22,7 @@ public abstract class CustomRestAction<T> implements RestAction<T> {
 	private final CaseInsensitiveMap<String, String> headers;
 
 	private BooleanSupplier check;
+	private RetryPolicy retryPolicy;
 
 	CustomRestAction(HttpHost host, Route.CompiledRoute route, RequestBody body, CaseInsensitiveMap<String, String> headers) {
 		this.host = host;
@@ -54,6 +55,35 @@ public abstract class CustomRestAction<T> implements RestAction<T> {
 		return this;
 	}
 
+	/**
+	 * @return The {@link RetryPolicy} of this action or {@code null} if the policy of the host is used
+	 */
+	@Nullable
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * @param policy The {@link RetryPolicy} for this action. {@code null} uses the policy of the {@link HttpHost}
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CustomRestAction<T> setRetryPolicy(@Nullable RetryPolicy policy) {
+		this.retryPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * Identical requests of actions with equal coalescing keys may share a single HTTP request and handler invocation, if coalescing is enabled for the host. Override this to enable coalescing for your action
+	 *
+	 * @return The coalescing key of this action or {@code null} if the requests of this action are never coalesced. Default is {@code null}
+	 * @see RequestCoalescer
+	 */
+	@Nullable
+	public Object getCoalescingKey() {
+		return null;
+	}
+
 	@Override
 	public void queue(@Nullable Consumer<? super T> success, @Nullable Consumer<? super Throwable> failure) {
 		if(success == null) success = RestAction.getDefaultSuccess();
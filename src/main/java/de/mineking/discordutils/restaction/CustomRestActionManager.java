@@ -1,23 +1,86 @@
 package de.mineking.discordutils.restaction;
 
+import de.mineking.discordutils.DiscordUtils;
 import de.mineking.discordutils.Manager;
+import de.mineking.discordutils.TaskScheduler;
 import net.dv8tion.jda.internal.utils.Checks;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class CustomRestActionManager extends Manager {
 	public final static Logger logger = LoggerFactory.getLogger(CustomRestActionManager.class);
 
-	final ExecutorService executor = Executors.newScheduledThreadPool(0);
 	final OkHttpClient client;
 
+	/**
+	 * @param client The {@link OkHttpClient} to perform requests with. Requests are enqueued asynchronously, so the {@link Dispatcher} of the client limits the number of concurrent requests
+	 */
+	public CustomRestActionManager(@NotNull OkHttpClient client) {
+		Checks.notNull(client, "client");
+		this.client = client;
+	}
+
 	public CustomRestActionManager() {
-		client = new OkHttpClient();
+		this(new OkHttpClient.Builder()
+				.dispatcher(new Dispatcher())
+				.connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+				.build()
+		);
+	}
+
+	/**
+	 * @return The {@link OkHttpClient} requests are performed with
+	 */
+	@NotNull
+	public OkHttpClient getClient() {
+		return client;
+	}
+
+	/**
+	 * @param max The maximum number of requests that are performed concurrently. Additional requests wait in the {@link Dispatcher}
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CustomRestActionManager setMaxRequests(int max) {
+		client.dispatcher().setMaxRequests(max);
+		return this;
+	}
+
+	/**
+	 * @param max The maximum number of requests that are performed concurrently for each host
+	 * @return {@code this}
+	 */
+	@NotNull
+	public CustomRestActionManager setMaxRequestsPerHost(int max) {
+		client.dispatcher().setMaxRequestsPerHost(max);
+		return this;
+	}
+
+	/**
+	 * @return The number of requests that are currently performed
+	 */
+	public int getRunningRequests() {
+		return client.dispatcher().runningCallsCount();
+	}
+
+	/**
+	 * @return The {@link Executor} that rate limit buckets are processed on. This is the {@link TaskScheduler} of the {@link DiscordUtils} instance
+	 */
+	@NotNull
+	public Executor getExecutor() {
+		return getScheduler();
+	}
+
+	@NotNull
+	TaskScheduler getScheduler() {
+		return getManager().getScheduler();
 	}
 
 	@NotNull
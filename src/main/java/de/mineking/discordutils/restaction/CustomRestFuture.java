@@ -12,10 +12,24 @@ public class CustomRestFuture<T> extends CompletableFuture<T> {
 	private final CustomRequest<T> request;
 	private final HttpHost host;
 
+	private final RateLimiter.Pending pending;
+
 	CustomRestFuture(CustomRestAction<T> action, HttpHost host, Route.CompiledRoute route, RequestBody body, CaseInsensitiveMap<String, String> headers, BooleanSupplier check) {
 		this.host = host;
 
-		host.request(request = new CustomRequest<>(action, route, this::complete, this::completeExceptionally, body, headers, check));
+		this.request = new CustomRequest<>(action, route, this::complete, this::completeExceptionally, body, headers, check);
+		this.pending = host.request(request);
+	}
+
+	/**
+	 * Cancels the request. If it is still queued, it is removed from the queue. Otherwise, the underlying HTTP call is cancelled
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		var result = super.cancel(mayInterruptIfRunning);
+		if(result) pending.cancel();
+
+		return result;
 	}
 
 	@NotNull
@@ -4,17 +4,48 @@ import okhttp3.Response;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public class HttpException extends Exception {
+	/**
+	 * The maximum number of bytes of the response body that are read into the exception message
+	 */
+	public final static int MAX_BODY_LENGTH = 8 * 1024;
+
 	private final Response response;
+	private final String body;
 
 	public HttpException(@NotNull Response response) throws IOException {
-		super("HttpException: [" + response.code() + "] " + response.body().string());
+		this(response, readBody(response));
+	}
+
+	private HttpException(@NotNull Response response, @NotNull String body) {
+		super("HttpException: [" + response.code() + "] " + body);
+
 		this.response = response;
+		this.body = body;
+	}
+
+	private static String readBody(@NotNull Response response) throws IOException {
+		if(response.body() == null) return "";
+
+		//The body is peeked, so that it is never buffered beyond the limit and can still be read by error handlers
+		var bytes = response.peekBody(MAX_BODY_LENGTH + 1).bytes();
+		if(bytes.length <= MAX_BODY_LENGTH) return new String(bytes, StandardCharsets.UTF_8);
+
+		return new String(bytes, 0, MAX_BODY_LENGTH, StandardCharsets.UTF_8) + "...";
 	}
 
 	@NotNull
 	public Response getResponse() {
 		return response;
 	}
+
+	/**
+	 * @return The response body, truncated to {@link #MAX_BODY_LENGTH} bytes
+	 */
+	@NotNull
+	public String getBody() {
+		return body;
+	}
 }
@@ -1,31 +1,56 @@
 package de.mineking.discordutils.restaction;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 import de.mineking.discordutils.IOBiFunction;
+import de.mineking.discordutils.IOFunction;
+import net.dv8tion.jda.api.requests.Method;
 import net.dv8tion.jda.api.requests.Route;
 import net.dv8tion.jda.internal.requests.Requester;
 import net.dv8tion.jda.internal.utils.Checks;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import okhttp3.internal.http.HttpMethod;
+import okio.BufferedSource;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 
 public class HttpHost {
+	private final static Gson gson = new Gson();
+	private final static long TRANSFER_CHUNK_SIZE = 1 << 20;
+
 	private final CustomRestActionManager manager;
 
 	private final String baseUrl;
 	private final CaseInsensitiveMap<String, String> defaultHeaders = new CaseInsensitiveMap<>();
 
+	private final RateLimiter rateLimiter = new RateLimiter(this);
+	private final RequestCoalescer coalescer = new RequestCoalescer(this);
+	private RetryPolicy retryPolicy = RetryPolicy.NONE;
+
+	private volatile ResponseCache cache;
+	private volatile OkHttpClient client;
+
 	HttpHost(@NotNull CustomRestActionManager manager, @NotNull String baseUrl) {
 		Checks.notNull(manager, "manager");
 		Checks.notNull(baseUrl, "baseUrl");
 
 		this.manager = manager;
 		this.baseUrl = baseUrl;
+		this.client = manager.client;
 	}
 
 	/**
@@ -63,6 +88,14 @@ public class HttpHost {
 	 */
 	@NotNull
 	public <T> CustomRestAction<T> request(@NotNull Route.CompiledRoute route, @NotNull IOBiFunction<CustomRequest<T>, Response, T> handler, @Nullable RequestBody body, @Nullable Headers headers) {
+		return request(route, handler, body, headers, handler);
+	}
+
+	/**
+	 * @param key The coalescing key. Actions are only coalesced if they use the same handler, so this is the handler or an object identifying it
+	 */
+	@NotNull
+	private <T> CustomRestAction<T> request(@NotNull Route.CompiledRoute route, @NotNull IOBiFunction<CustomRequest<T>, Response, T> handler, @Nullable RequestBody body, @Nullable Headers headers, @NotNull Object key) {
 		Checks.notNull(route, "route");
 		Checks.notNull(handler, "handler");
 
@@ -71,6 +104,12 @@ public class HttpHost {
 			public T handle(@NotNull CustomRequest<T> request, @NotNull Response response) throws IOException {
 				return handler.apply(request, response);
 			}
+
+			@NotNull
+			@Override
+			public Object getCoalescingKey() {
+				return key;
+			}
 		};
 	}
 
@@ -97,9 +136,264 @@ public class HttpHost {
 		return request(route, (request, response) -> null);
 	}
 
-	void request(@NotNull CustomRequest<?> request) {
+	/**
+	 * Creates a {@link CustomRestAction} that parses the response body with a {@link JsonReader} while it is received, instead of buffering the whole body first
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param handler A handler that reads the response from the provided {@link JsonReader}
+	 * @param body    The {@link RequestBody}
+	 * @param headers Additional headers specific for this request
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestJson(@NotNull Route.CompiledRoute route, @NotNull IOFunction<JsonReader, T> handler, @Nullable RequestBody body, @Nullable Headers headers) {
+		Checks.notNull(handler, "handler");
+		return request(route, json(handler), body, headers, List.of(JsonReader.class, handler));
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that parses the response body with a {@link JsonReader} while it is received, instead of buffering the whole body first
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param handler A handler that reads the response from the provided {@link JsonReader}
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestJson(@NotNull Route.CompiledRoute route, @NotNull IOFunction<JsonReader, T> handler) {
+		return requestJson(route, handler, null, null);
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that deserializes the response body into the provided type while it is received
+	 *
+	 * @param route The {@link Route.CompiledRoute} to make the request to
+	 * @param type  The {@link Type} to deserialize
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestJson(@NotNull Route.CompiledRoute route, @NotNull Type type) {
+		Checks.notNull(type, "type");
+		return request(route, json(reader -> gson.fromJson(reader, type)), null, null, List.of(JsonReader.class, type));
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that passes the response body as {@link InputStream} to the handler. The stream is closed after the handler returned
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param handler A handler that reads the response from the provided {@link InputStream}
+	 * @param body    The {@link RequestBody}
+	 * @param headers Additional headers specific for this request
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestStream(@NotNull Route.CompiledRoute route, @NotNull IOFunction<InputStream, T> handler, @Nullable RequestBody body, @Nullable Headers headers) {
+		Checks.notNull(handler, "handler");
+		return request(route, (request, response) -> {
+			try(var stream = getBody(response).byteStream()) {
+				return handler.apply(stream);
+			}
+		}, body, headers, List.of(InputStream.class, handler));
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that passes the response body as {@link InputStream} to the handler. The stream is closed after the handler returned
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param handler A handler that reads the response from the provided {@link InputStream}
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestStream(@NotNull Route.CompiledRoute route, @NotNull IOFunction<InputStream, T> handler) {
+		return requestStream(route, handler, null, null);
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that passes the response body as Okio {@link BufferedSource} to the handler. The source is closed after the handler returned
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param handler A handler that reads the response from the provided {@link BufferedSource}
+	 * @param body    The {@link RequestBody}
+	 * @param headers Additional headers specific for this request
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestSource(@NotNull Route.CompiledRoute route, @NotNull IOFunction<BufferedSource, T> handler, @Nullable RequestBody body, @Nullable Headers headers) {
+		Checks.notNull(handler, "handler");
+		return request(route, source(handler), body, headers, List.of(BufferedSource.class, handler));
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that passes the response body as Okio {@link BufferedSource} to the handler. The source is closed after the handler returned
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param handler A handler that reads the response from the provided {@link BufferedSource}
+	 * @return A {@link CustomRestAction} managing the call
+	 */
+	@NotNull
+	public <T> CustomRestAction<T> requestSource(@NotNull Route.CompiledRoute route, @NotNull IOFunction<BufferedSource, T> handler) {
+		return requestSource(route, handler, null, null);
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that writes the response body directly to a file. The body is transferred in chunks, so that it is never held in memory completely
+	 *
+	 * @param route   The {@link Route.CompiledRoute} to make the request to
+	 * @param target  The file to write to. Existing files are overwritten
+	 * @param body    The {@link RequestBody}
+	 * @param headers Additional headers specific for this request
+	 * @return A {@link CustomRestAction} providing the target path
+	 */
+	@NotNull
+	public CustomRestAction<Path> download(@NotNull Route.CompiledRoute route, @NotNull Path target, @Nullable RequestBody body, @Nullable Headers headers) {
+		Checks.notNull(target, "target");
+		return request(route, source(source -> {
+			try(var channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				long position = 0;
+				long count;
+
+				while((count = channel.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) position += count;
+			}
+
+			return target;
+		}), body, headers, List.of(Path.class, target));
+	}
+
+	/**
+	 * Creates a {@link CustomRestAction} that writes the response body directly to a file. The body is transferred in chunks, so that it is never held in memory completely
+	 *
+	 * @param route  The {@link Route.CompiledRoute} to make the request to
+	 * @param target The file to write to. Existing files are overwritten
+	 * @return A {@link CustomRestAction} providing the target path
+	 */
+	@NotNull
+	public CustomRestAction<Path> download(@NotNull Route.CompiledRoute route, @NotNull Path target) {
+		return download(route, target, null, null);
+	}
+
+	@NotNull
+	private static <T> IOBiFunction<CustomRequest<T>, Response, T> json(@NotNull IOFunction<JsonReader, T> handler) {
+		return (request, response) -> {
+			try(var reader = new JsonReader(getBody(response).charStream())) {
+				return handler.apply(reader);
+			}
+		};
+	}
+
+	@NotNull
+	private static <T> IOBiFunction<CustomRequest<T>, Response, T> source(@NotNull IOFunction<BufferedSource, T> handler) {
+		return (request, response) -> {
+			try(var source = getBody(response).source()) {
+				return handler.apply(source);
+			}
+		};
+	}
+
+	@NotNull
+	private static ResponseBody getBody(@NotNull Response response) throws IOException {
+		var body = response.body();
+		if(body == null) throw new IOException("Response has no body");
+		return body;
+	}
+
+	/**
+	 * @return The {@link RetryPolicy} for requests to this host that do not specify their own policy
+	 */
+	@NotNull
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * @param policy The {@link RetryPolicy} for requests to this host that do not specify their own policy. By default, requests are not retried
+	 * @return {@code this}
+	 */
+	@NotNull
+	public HttpHost setRetryPolicy(@NotNull RetryPolicy policy) {
+		Checks.notNull(policy, "policy");
+
+		this.retryPolicy = policy;
+		return this;
+	}
+
+	/**
+	 * @return The {@link RateLimiter} that queues the requests of this host
+	 */
+	@NotNull
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	/**
+	 * @return The {@link RequestCoalescer} that merges identical requests to this host. Coalescing is disabled by default
+	 */
+	@NotNull
+	public RequestCoalescer getCoalescer() {
+		return coalescer;
+	}
+
+	/**
+	 * @return The {@link ResponseCache} of this host or {@code null} if responses are not cached
+	 */
+	@Nullable
+	public ResponseCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * @param cache The {@link ResponseCache} for {@code GET} requests to this host. {@code null} disables caching, which is the default
+	 * @return {@code this}
+	 */
+	@NotNull
+	public HttpHost setCache(@Nullable ResponseCache cache) {
+		this.client = cache == null ? manager.client : cache.createClient(manager.client);
+		this.cache = cache;
+
+		return this;
+	}
+
+	@NotNull
+	RateLimiter.Pending request(@NotNull CustomRequest<?> request) {
 		Checks.notNull(request, "request");
 
+		var cache = this.cache;
+		if(cache != null && request.route().getMethod() == Method.GET) {
+			var response = cache.lookup(newRequest(request));
+
+			//Fresh responses do not have to wait for their rate limit bucket
+			if(response != null) {
+				var pending = new RateLimiter.Pending(request);
+
+				manager.getExecutor().execute(() -> {
+					if(pending.isCancelled() || (request.check() != null && !request.check().getAsBoolean())) return;
+
+					try(response) {
+						if(request.onSuccess() != null) request.handleSuccess(response);
+					} catch(Exception e) {
+						request.handleError(e);
+					}
+				});
+
+				return pending;
+			}
+		}
+
+		var pending = coalescer.join(request);
+		return pending != null ? pending : rateLimiter.enqueue(request);
+	}
+
+	/**
+	 * Updates the {@link ResponseCache} with a response received from the network
+	 *
+	 * @return The response to handle
+	 */
+	@NotNull
+	Response handleResponse(@NotNull CustomRequest<?> request, @NotNull Response response) throws IOException {
+		var cache = this.cache;
+		return cache == null ? response : cache.update(request.route(), response);
+	}
+
+	@NotNull
+	private Request newRequest(@NotNull CustomRequest<?> request) {
 		var builder = new Request.Builder();
 
 		String method = request.route().getMethod().toString();
@@ -112,16 +406,20 @@ public class HttpHost {
 		defaultHeaders.forEach(builder::header);
 		if(request.headers() != null) request.headers().forEach(builder::header);
 
-		var call = manager.client.newCall(builder.build());
+		return builder.build();
+	}
+
+	@NotNull
+	Call newCall(@NotNull CustomRequest<?> request) {
+		var result = newRequest(request);
 
-		manager.executor.execute(() -> {
-			try(var response = call.execute()) {
-				if(request.check() != null && !request.check().getAsBoolean()) return;
+		var cache = this.cache;
+		if(cache != null && request.route().getMethod() == Method.GET) {
+			var builder = result.newBuilder();
+			cache.prepare(builder, result);
+			result = builder.build();
+		}
 
-				if(request.onSuccess() != null) request.handleSuccess(response);
-			} catch(Exception e) {
-				request.handleError(e);
-			}
-		});
+		return client.newCall(result);
 	}
 }
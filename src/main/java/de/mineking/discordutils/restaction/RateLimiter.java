@@ -0,0 +1,454 @@
+package de.mineking.discordutils.restaction;
+
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.utils.Checks;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues the requests of a {@link HttpHost} in rate limit buckets, similar to JDA's rate limiter. Requests of the same bucket are performed in order, one after another.
+ * <p>
+ * Buckets are identified by the route and its major parameters. If the host sends a {@code X-RateLimit-Bucket} header, routes with the same bucket hash share a bucket. {@code X-RateLimit-Remaining}, {@code X-RateLimit-Reset-After}, {@code X-RateLimit-Reset} and {@code Retry-After} are honored. Requests that receive a 429 response with one of these headers are retried after the limit reset.
+ * <p>
+ * Requests of a bucket run concurrently until the host announces a limit for it. After that, they are performed one after another, like JDA does.
+ *
+ * @see HttpHost#getRateLimiter()
+ */
+public class RateLimiter {
+	private final HttpHost host;
+
+	private final Map<String, String> hashes = new ConcurrentHashMap<>();
+	private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+	private volatile long globalReset;
+
+	private final LongAdder started = new LongAdder();
+	private final LongAdder waitTime = new LongAdder();
+
+	RateLimiter(@NotNull HttpHost host) {
+		this.host = host;
+	}
+
+	@NotNull
+	Pending enqueue(@NotNull CustomRequest<?> request) {
+		var pending = new Pending(request);
+		enqueue(pending);
+		return pending;
+	}
+
+	private void enqueue(@NotNull Pending pending) {
+		var start = new boolean[1];
+
+		//Adding happens inside compute, so that the bucket cannot be removed in the meantime
+		var bucket = buckets.compute(getBucket(pending.request.route()), (key, current) -> {
+			if(current == null) current = new Bucket(key);
+			start[0] = current.offer(pending);
+
+			return current;
+		});
+
+		if(start[0]) host.getManager().getExecutor().execute(bucket::drain);
+	}
+
+	@NotNull
+	private RetryPolicy getRetryPolicy(@NotNull CustomRequest<?> request) {
+		var policy = request.action().getRetryPolicy();
+		return policy == null ? host.getRetryPolicy() : policy;
+	}
+
+	private boolean retry(@NotNull Pending pending, int status, @Nullable Response response) {
+		var policy = getRetryPolicy(pending.request);
+		if(!policy.shouldRetry(pending.request.route().getMethod(), pending.attempts, status)) return false;
+
+		var delay = policy.getDelay(pending.attempts).toMillis();
+		if(response != null) delay = Math.max(delay, getRetryAfter(response, System.currentTimeMillis()));
+
+		CustomRestActionManager.logger.debug("Request to {} failed with status {}, retrying in {}ms (attempt {})", pending.request.route().getCompiledRoute(), status, delay, pending.attempts + 1);
+		host.getManager().getScheduler().schedule(() -> enqueue(pending), delay, TimeUnit.MILLISECONDS);
+
+		return true;
+	}
+
+	/**
+	 * @return The number of requests that wait for their rate limit bucket
+	 */
+	public int getQueueSize() {
+		return buckets.values().stream().mapToInt(Bucket::size).sum();
+	}
+
+	/**
+	 * @param route The {@link Route.CompiledRoute}
+	 * @return The number of requests that wait in the bucket of the provided route
+	 */
+	public int getQueueSize(@NotNull Route.CompiledRoute route) {
+		Checks.notNull(route, "route");
+
+		var bucket = buckets.get(getBucket(route));
+		return bucket == null ? 0 : bucket.size();
+	}
+
+	/**
+	 * @return The number of buckets that are currently tracked
+	 */
+	public int getBucketCount() {
+		return buckets.size();
+	}
+
+	/**
+	 * @return The total number of requests that left the queue
+	 */
+	public long getStartedRequests() {
+		return started.sum();
+	}
+
+	/**
+	 * @return The average time requests waited in the queue
+	 */
+	@NotNull
+	public Duration getAverageWaitTime() {
+		var count = started.sum();
+		return count == 0 ? Duration.ZERO : Duration.ofNanos(waitTime.sum() / count);
+	}
+
+	@NotNull
+	private static String getRoute(@NotNull Route.CompiledRoute route) {
+		return route.getBaseRoute().getMethod() + " " + route.getBaseRoute().getRoute();
+	}
+
+	@NotNull
+	private String getBucket(@NotNull Route.CompiledRoute route) {
+		var id = getRoute(route);
+		return hashes.getOrDefault(id, id) + ":" + route.getMajorParameters();
+	}
+
+	@Nullable
+	private static Double getNumber(@NotNull Response response, @NotNull String header) {
+		var value = response.header(header);
+		if(value == null) return null;
+
+		try {
+			return Double.parseDouble(value);
+		} catch(NumberFormatException e) {
+			return null;
+		}
+	}
+
+	static long getRetryAfter(@NotNull Response response, long now) {
+		var value = response.header("Retry-After");
+		if(value == null) return -1;
+
+		try {
+			return (long) (Double.parseDouble(value) * 1000);
+		} catch(NumberFormatException ignored) {
+		}
+
+		try {
+			return Math.max(0, ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - now);
+		} catch(DateTimeParseException e) {
+			return -1;
+		}
+	}
+
+	static final class Pending {
+		private final CustomRequest<?> request;
+		private final long created = System.nanoTime();
+
+		private Call call;
+		private boolean cancelled;
+
+		private int attempts;
+
+		Pending(@NotNull CustomRequest<?> request) {
+			this.request = request;
+		}
+
+		@NotNull
+		CustomRequest<?> getRequest() {
+			return request;
+		}
+
+		synchronized boolean start(@NotNull Call call) {
+			if(cancelled) return false;
+
+			this.call = call;
+			return true;
+		}
+
+		/**
+		 * Removes the request from the queue or cancels the underlying {@link Call} if it already started
+		 */
+		synchronized void cancel() {
+			cancelled = true;
+			if(call != null) call.cancel();
+		}
+
+		synchronized boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	private final class Bucket {
+		private volatile String key;
+		private final Deque<Pending> queue = new ArrayDeque<>();
+
+		private boolean running;
+		private boolean limited;
+		private int inFlight;
+		private int remaining = 1;
+		private long reset;
+
+		Bucket(@NotNull String key) {
+			this.key = key;
+		}
+
+		synchronized int size() {
+			return queue.size();
+		}
+
+		/**
+		 * @return Whether the bucket has to be drained
+		 */
+		synchronized boolean offer(@NotNull Pending request) {
+			queue.add(request);
+
+			if(running) return false;
+			return running = true;
+		}
+
+		private long getDelay(long now) {
+			var until = Math.max(globalReset, remaining <= 0 ? reset : 0);
+			return until - now;
+		}
+
+		/**
+		 * Continues draining after a request finished, unless another thread is already draining this bucket
+		 */
+		private void resume() {
+			synchronized(this) {
+				inFlight--;
+
+				if(running) return;
+				running = true;
+			}
+
+			drain();
+		}
+
+		private void drain() {
+			while(true) {
+				Pending next;
+				var idle = false;
+				var now = System.currentTimeMillis();
+
+				synchronized(this) {
+					if(queue.isEmpty()) {
+						running = false;
+						idle = inFlight == 0 && reset <= now;
+						next = null;
+					} else if(limited && inFlight > 0) {
+						//The response of the running request continues draining
+						running = false;
+						return;
+					} else {
+						var delay = getDelay(now);
+						if(delay > 0) {
+							host.getManager().getScheduler().schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+							return;
+						}
+
+						next = queue.poll();
+						if(next.isCancelled()) continue;
+
+						if(limited) remaining--;
+						inFlight++;
+					}
+				}
+
+				//The bucket is removed outside its own lock, because compute locks the map before the bucket
+				if(next == null) {
+					if(idle) remove(now);
+					return;
+				}
+
+				started.increment();
+				waitTime.add(System.nanoTime() - next.created);
+
+				if(!perform(next)) {
+					synchronized(this) {
+						inFlight--;
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return Whether the request was enqueued. The callback calls {@link #resume()} when the request finished
+		 */
+		private boolean perform(@NotNull Pending pending) {
+			var request = pending.request;
+			if(request.check() != null && !request.check().getAsBoolean()) return false;
+
+			if(pending.attempts++ == 0) getRetryPolicy(request).recordRequest();
+
+			Call call;
+
+			try {
+				call = host.newCall(request);
+			} catch(Exception e) {
+				request.handleError(e);
+				return false;
+			}
+
+			if(!pending.start(call)) return false;
+
+			call.enqueue(new Callback() {
+				@Override
+				public void onFailure(@NotNull Call call, @NotNull IOException e) {
+					if(!pending.isCancelled() && !retry(pending, -1, null)) request.handleError(e);
+					resume();
+				}
+
+				@Override
+				public void onResponse(@NotNull Call call, @NotNull Response response) {
+					var retry = false;
+
+					try(response) {
+						retry = update(request.route(), response);
+
+						if(!retry) {
+							try(var result = host.handleResponse(request, response)) {
+								if((result.isSuccessful() || !retry(pending, result.code(), result)) && request.onSuccess() != null)
+									request.handleSuccess(result);
+							}
+						}
+					} catch(Exception e) {
+						request.handleError(e);
+					}
+
+					//Rate limited attempts do not count towards the retry policy
+					if(retry) {
+						synchronized(Bucket.this) {
+							pending.attempts--;
+							queue.addFirst(pending);
+						}
+					}
+
+					migrate(request.route());
+					resume();
+				}
+			});
+
+			return true;
+		}
+
+		/**
+		 * Removes this bucket if it is still idle. Requests are added inside compute as well, so they cannot be added to a removed bucket
+		 */
+		private void remove(long now) {
+			buckets.computeIfPresent(key, (k, current) -> {
+				if(current != this) return current;
+
+				synchronized(this) {
+					return queue.isEmpty() && !running && inFlight == 0 && reset <= now ? null : current;
+				}
+			});
+		}
+
+		/**
+		 * Moves this bucket to its bucket hash once it is known, like JDA does. The queue and the rate limit information move with it, so that requests continue in order and respect the limit that was just received
+		 */
+		private void migrate(@NotNull Route.CompiledRoute route) {
+			var old = key;
+			var target = getBucket(route);
+			if(target.equals(old)) return;
+
+			var start = new Bucket[1];
+
+			var result = buckets.compute(target, (k, current) -> {
+				if(current == null || current == this) {
+					key = target;
+					return this;
+				}
+
+				//Another route with the same hash already has a bucket. Requests that were added there in the meantime are newer than the ones of this bucket
+				synchronized(this) {
+					synchronized(current) {
+						current.limited |= limited;
+						current.remaining = remaining;
+						current.reset = Math.max(current.reset, reset);
+
+						for(var it = queue.descendingIterator(); it.hasNext(); ) current.queue.addFirst(it.next());
+						queue.clear();
+
+						if(!current.running && !current.queue.isEmpty()) {
+							current.running = true;
+							start[0] = current;
+						}
+					}
+				}
+
+				return current;
+			});
+
+			//Requests of this bucket that are still running continue draining it, even if it is no longer registered
+			buckets.remove(old, this);
+			if(start[0] != null) host.getManager().getExecutor().execute(start[0]::drain);
+		}
+
+		/**
+		 * @return Whether the request was rate limited and has to be retried
+		 */
+		private boolean update(@NotNull Route.CompiledRoute route, @NotNull Response response) {
+			var now = System.currentTimeMillis();
+
+			var hash = response.header("X-RateLimit-Bucket");
+			if(hash != null) hashes.put(getRoute(route), hash);
+
+			var remaining = getNumber(response, "X-RateLimit-Remaining");
+			var resetAfter = getNumber(response, "X-RateLimit-Reset-After");
+			var resetAt = getNumber(response, "X-RateLimit-Reset");
+
+			var reset = resetAfter != null ? now + (long) (resetAfter * 1000) : resetAt != null ? (long) (resetAt * 1000) : -1;
+
+			synchronized(this) {
+				if(remaining != null) this.remaining = remaining.intValue();
+				if(reset >= 0) this.reset = reset;
+				if(remaining != null || reset >= 0) limited = true;
+			}
+
+			if(response.code() != 429) return false;
+
+			var retryAfter = getRetryAfter(response, now);
+			if(retryAfter < 0 && reset < 0) return false;
+
+			var until = retryAfter >= 0 ? now + retryAfter : reset;
+
+			if("true".equalsIgnoreCase(response.header("X-RateLimit-Global"))) globalReset = Math.max(globalReset, until);
+			else {
+				synchronized(this) {
+					this.limited = true;
+					this.remaining = 0;
+					this.reset = Math.max(this.reset, until);
+				}
+			}
+
+			CustomRestActionManager.logger.debug("Encountered rate limit on bucket {}, retrying in {}ms", key, until - now);
+			return true;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package de.mineking.discordutils.restaction;
+
+import net.dv8tion.jda.api.requests.Method;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces identical {@code GET} requests of a {@link HttpHost} (single-flight). While a request is in flight, identical requests do not cause another HTTP request but receive the result of the running one. The response handler only runs once.
+ * <p>
+ * Requests are identical if they have the same compiled route, body and headers and their {@link CustomRestAction#getCoalescingKey() coalescing keys} are equal. Requests with a check are never coalesced.
+ *
+ * @see HttpHost#getCoalescer()
+ */
+public class RequestCoalescer {
+	private final static long MAX_BODY_SIZE = 64 * 1024;
+
+	private final HttpHost host;
+	private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+
+	private volatile boolean enabled = false;
+
+	private final LongAdder started = new LongAdder();
+	private final LongAdder saved = new LongAdder();
+
+	RequestCoalescer(@NotNull HttpHost host) {
+		this.host = host;
+	}
+
+	/**
+	 * @param enabled Whether identical requests should be coalesced. Default is {@code false}
+	 * @return {@code this}
+	 */
+	@NotNull
+	public RequestCoalescer setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		return this;
+	}
+
+	/**
+	 * @return Whether identical requests are coalesced
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return The number of requests that are currently in flight and can be joined
+	 */
+	public int getFlights() {
+		return flights.size();
+	}
+
+	/**
+	 * @return The total number of requests that were performed for coalescable requests
+	 */
+	public long getStartedRequests() {
+		return started.sum();
+	}
+
+	/**
+	 * @return The total number of requests that joined a request in flight instead of performing their own
+	 */
+	public long getSavedRequests() {
+		return saved.sum();
+	}
+
+	/**
+	 * @return The {@link RateLimiter.Pending} of the request or {@code null} if the request cannot be coalesced
+	 */
+	@Nullable
+	RateLimiter.Pending join(@NotNull CustomRequest<?> request) {
+		if(!enabled) return null;
+
+		var key = getKey(request);
+		if(key == null) return null;
+
+		var pending = new RateLimiter.Pending(request);
+		var created = new Flight[1];
+
+		var flight = flights.compute(key, (k, current) -> {
+			if(current != null) {
+				current.add(pending);
+				return current;
+			}
+
+			return created[0] = new Flight(key, pending);
+		});
+
+		if(flight == created[0]) {
+			started.increment();
+			flight.start(request);
+		} else saved.increment();
+
+		return pending;
+	}
+
+	@Nullable
+	private static Key getKey(@NotNull CustomRequest<?> request) {
+		if(request.route().getMethod() != Method.GET || request.check() != null) return null;
+
+		var handler = request.action().getCoalescingKey();
+		if(handler == null) return null;
+
+		var body = hash(request.body());
+		if(body == null) return null;
+
+		return new Key(request.route().getCompiledRoute(), body, request.headers() == null ? Map.of() : Map.copyOf(request.headers()), handler);
+	}
+
+	@Nullable
+	private static String hash(@Nullable RequestBody body) {
+		if(body == null) return "";
+
+		try {
+			if(body.isOneShot() || body.contentLength() < 0 || body.contentLength() > MAX_BODY_SIZE) return null;
+
+			var buffer = new Buffer();
+			body.writeTo(buffer);
+
+			return buffer.sha256().hex();
+		} catch(IOException e) {
+			return null;
+		}
+	}
+
+	private record Key(@NotNull String route, @NotNull String body, @NotNull Map<String, String> headers, @NotNull Object handler) {
+	}
+
+	private final class Flight {
+		private final Key key;
+		private final List<RateLimiter.Pending> requests = new ArrayList<>();
+
+		Flight(@NotNull Key key, @NotNull RateLimiter.Pending first) {
+			this.key = key;
+			this.requests.add(first);
+		}
+
+		void add(@NotNull RateLimiter.Pending pending) {
+			requests.add(pending);
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		void start(@NotNull CustomRequest<?> request) {
+			host.getRateLimiter().enqueue(new CustomRequest(request.action(), request.route(), (Consumer<Object>) this::complete, (Consumer<Throwable>) this::fail, request.body(), request.headers(), null));
+		}
+
+		/**
+		 * Removes this flight, so that later requests start a new one
+		 */
+		@NotNull
+		private List<RateLimiter.Pending> finish() {
+			//Requests join inside compute, which locks the same entry as the removal. After the removal, the list cannot change anymore
+			flights.remove(key, this);
+			return requests;
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private void complete(Object value) {
+			for(var pending : finish()) {
+				var request = pending.getRequest();
+				if(pending.isCancelled() || request.onSuccess() == null) continue;
+
+				try {
+					((Consumer) request.onSuccess()).accept(value);
+				} catch(Exception e) {
+					request.handleError(e);
+				}
+			}
+		}
+
+		private void fail(Throwable error) {
+			for(var pending : finish()) {
+				var request = pending.getRequest();
+				if(pending.isCancelled()) continue;
+
+				if(request.onError() != null) request.onError().accept(error);
+				else CustomRestActionManager.logger.error("Custom RestAction failed", error);
+			}
+		}
+	}
+}
@@ -0,0 +1,342 @@
+package de.mineking.discordutils.restaction;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.dv8tion.jda.api.requests.Route;
+import net.dv8tion.jda.internal.utils.Checks;
+import okhttp3.CacheControl;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An HTTP response cache for the {@code GET} requests of a {@link HttpHost}. Responses are kept in memory and, optionally, in a disk cache that is managed by OkHttp.
+ * <p>
+ * Freshness is computed from {@code Cache-Control} (or {@code Expires}) unless a TTL is forced for the route with {@link #setTtl(Route, Duration)}. Stale responses with an {@code ETag} or {@code Last-Modified} header are revalidated with a conditional request. Successful requests with other methods invalidate the cached responses of their url.
+ * <p>
+ * Responses are cached by their url and all request headers, so requests with different credentials or {@code Accept} headers never share a response. Responses with {@code Vary: *} are not cached.
+ *
+ * @see HttpHost#setCache(ResponseCache)
+ */
+public class ResponseCache {
+	private final Cache<String, Entry> memory;
+	private final okhttp3.Cache disk;
+
+	private final Map<String, Duration> ttl = new ConcurrentHashMap<>();
+	private int maxEntrySize = 1024 * 1024;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+
+	/**
+	 * @param maxSize The maximum number of bytes of response bodies that are kept in memory
+	 */
+	public ResponseCache(long maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * @param maxSize   The maximum number of bytes of response bodies that are kept in memory
+	 * @param directory The directory for the disk cache
+	 * @param diskSize  The maximum size of the disk cache in bytes
+	 */
+	public ResponseCache(long maxSize, @NotNull Path directory, long diskSize) {
+		this(maxSize, new okhttp3.Cache(directory.toFile(), diskSize));
+	}
+
+	private ResponseCache(long maxSize, @Nullable okhttp3.Cache disk) {
+		Checks.positive(maxSize, "maxSize");
+
+		this.memory = Caffeine.newBuilder()
+				.maximumWeight(maxSize)
+				.weigher((String key, Entry entry) -> entry.body.length)
+				.build();
+		this.disk = disk;
+	}
+
+	/**
+	 * @param route The {@link Route}
+	 * @param ttl   The time responses of this route are considered fresh, regardless of their {@code Cache-Control} header. {@code null} removes the override. This only applies to the memory cache
+	 * @return {@code this}
+	 */
+	@NotNull
+	public ResponseCache setTtl(@NotNull Route route, @Nullable Duration ttl) {
+		Checks.notNull(route, "route");
+
+		if(ttl == null) this.ttl.remove(getRoute(route));
+		else this.ttl.put(getRoute(route), ttl);
+
+		return this;
+	}
+
+	/**
+	 * @param size The maximum size of a single response body in bytes. Larger responses are not kept in memory. Default is 1 MiB
+	 * @return {@code this}
+	 */
+	@NotNull
+	public ResponseCache setMaxEntrySize(int size) {
+		Checks.positive(size, "size");
+
+		this.maxEntrySize = size;
+		return this;
+	}
+
+	/**
+	 * Removes all responses from the memory and disk cache
+	 */
+	public void invalidateAll() {
+		memory.invalidateAll();
+
+		if(disk != null) {
+			try {
+				disk.evictAll();
+			} catch(IOException e) {
+				CustomRestActionManager.logger.warn("Failed to clear disk cache", e);
+			}
+		}
+	}
+
+	/**
+	 * @return The OkHttp disk cache or {@code null} if responses are only kept in memory
+	 */
+	@Nullable
+	public okhttp3.Cache getDiskCache() {
+		return disk;
+	}
+
+	/**
+	 * @return The number of requests that were answered from memory without a network request
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of requests that required a network request. This includes requests that were answered by the disk cache
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return The number of stale responses that were confirmed by the host with a {@code 304} response
+	 */
+	public long getRevalidations() {
+		return revalidations.sum();
+	}
+
+	/**
+	 * @return The ratio of requests that did not have to transfer the response body, either because of a hit or a revalidation
+	 */
+	public double getHitRate() {
+		var hits = this.hits.sum();
+		var total = hits + misses.sum();
+
+		return total == 0 ? 0 : (double) (hits + revalidations.sum()) / total;
+	}
+
+	/**
+	 * @return The number of responses in memory
+	 */
+	public long getSize() {
+		return memory.estimatedSize();
+	}
+
+	@NotNull
+	OkHttpClient createClient(@NotNull OkHttpClient client) {
+		return disk == null ? client : client.newBuilder().cache(disk).build();
+	}
+
+	@NotNull
+	private static String getRoute(@NotNull Route route) {
+		return route.getMethod() + " " + route.getRoute();
+	}
+
+	/**
+	 * @return A fresh cached response or {@code null} if a network request is required
+	 */
+	@Nullable
+	Response lookup(@NotNull Request request) {
+		var entry = memory.getIfPresent(getKey(request));
+
+		if(entry == null || entry.expires < System.currentTimeMillis()) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+		return entry.toResponse(request);
+	}
+
+	/**
+	 * Adds conditional headers to the request if a stale response is cached. The entry is attached to the request, so that a {@code 304} response can still be answered if the entry was evicted in the meantime
+	 */
+	void prepare(@NotNull Request.Builder builder, @NotNull Request request) {
+		var key = getKey(request);
+		var entry = memory.getIfPresent(key);
+
+		//Conditional headers of the caller are kept. A 304 response then answers the caller's validators, not the ones of the entry
+		if(entry == null || request.header("If-None-Match") != null || request.header("If-Modified-Since") != null) {
+			builder.tag(Lookup.class, new Lookup(key, null));
+			return;
+		}
+
+		var etag = entry.headers.get("ETag");
+		var modified = entry.headers.get("Last-Modified");
+
+		if(etag != null) builder.header("If-None-Match", etag);
+		if(modified != null) builder.header("If-Modified-Since", modified);
+
+		builder.tag(Lookup.class, new Lookup(key, etag != null || modified != null ? entry : null));
+	}
+
+	/**
+	 * Stores cacheable responses and replaces {@code 304} responses with the cached response
+	 *
+	 * @return The response to handle
+	 */
+	@NotNull
+	Response update(@NotNull Route.CompiledRoute route, @NotNull Response response) throws IOException {
+		if(!response.request().method().equals("GET")) {
+			if(response.isSuccessful()) invalidate(response.request().url().toString());
+			return response;
+		}
+
+		var lookup = response.request().tag(Lookup.class);
+		var key = lookup != null ? lookup.key() : getKey(response.request());
+
+		if(response.code() == 304) {
+			//Conditional headers that were added by the caller itself are not answered from the cache
+			var entry = lookup != null ? lookup.entry() : null;
+			if(entry == null) return response;
+
+			//Headers of the 304 response replace the stored headers, except for the ones describing the body
+			var headers = entry.headers.newBuilder();
+			for(var name : response.headers().names()) {
+				if(!name.regionMatches(true, 0, "Content-", 0, 8)) headers.set(name, response.header(name));
+			}
+
+			entry = entry.withHeaders(headers.build(), getExpiry(route, headers.build(), response.receivedResponseAtMillis()));
+			memory.put(key, entry);
+
+			revalidations.increment();
+			response.close();
+
+			return entry.toResponse(response.request());
+		}
+
+		if(response.code() != 200 || response.body() == null) return response;
+
+		if("*".equals(response.header("Vary"))) return response;
+
+		var expires = getExpiry(route, response.headers(), response.receivedResponseAtMillis());
+		if(expires == Long.MIN_VALUE) return response;
+
+		//Peeking keeps the original body readable for the handler
+		var body = response.peekBody(maxEntrySize + 1L);
+		if(body.contentLength() > maxEntrySize) return response;
+
+		memory.put(key, new Entry(response.protocol(), response.message(), response.headers(), body.bytes(), body.contentType(), expires));
+		return response;
+	}
+
+	/**
+	 * Removes the responses of all request headers for the provided url
+	 */
+	private void invalidate(@NotNull String url) {
+		var prefix = url + "\n";
+		memory.asMap().keySet().removeIf(key -> key.equals(url) || key.startsWith(prefix));
+	}
+
+	/**
+	 * @return The cache key of the request, consisting of the url and all request headers except for conditional headers
+	 */
+	@NotNull
+	private static String getKey(@NotNull Request request) {
+		var key = new StringBuilder(request.url().toString());
+
+		//The names are already sorted case-insensitively
+		for(var name : request.headers().names()) {
+			if(name.equalsIgnoreCase("If-None-Match") || name.equalsIgnoreCase("If-Modified-Since")) continue;
+			key.append('\n').append(name.toLowerCase()).append(": ").append(String.join(", ", request.headers(name)));
+		}
+
+		return key.toString();
+	}
+
+	/**
+	 * @return The timestamp until the response is fresh or {@link Long#MIN_VALUE} if it may not be cached
+	 */
+	private long getExpiry(@NotNull Route.CompiledRoute route, @NotNull Headers headers, long received) {
+		var override = ttl.get(getRoute(route.getBaseRoute()));
+		if(override != null) return received + override.toMillis();
+
+		var control = CacheControl.parse(headers);
+		if(control.noStore()) return Long.MIN_VALUE;
+
+		var revalidate = headers.get("ETag") != null || headers.get("Last-Modified") != null;
+		var expires = received;
+
+		if(control.noCache()) return revalidate ? expires : Long.MIN_VALUE;
+
+		if(control.maxAgeSeconds() >= 0) {
+			var age = headers.get("Age");
+			expires = received + control.maxAgeSeconds() * 1000L - (age == null ? 0 : parseSeconds(age) * 1000L);
+		} else {
+			var date = headers.getDate("Expires");
+			var sent = headers.getDate("Date");
+
+			if(date != null) expires = received + date.getTime() - (sent == null ? received : sent.getTime());
+		}
+
+		//Responses without freshness and validators would never be used
+		return expires > received || revalidate ? expires : Long.MIN_VALUE;
+	}
+
+	private static long parseSeconds(@NotNull String value) {
+		try {
+			return Long.parseLong(value.trim());
+		} catch(NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @param entry The entry the conditional headers were taken from or {@code null} if this cache did not add conditional headers
+	 */
+	private record Lookup(@NotNull String key, @Nullable Entry entry) {
+	}
+
+	private record Entry(@NotNull Protocol protocol, @NotNull String message, @NotNull Headers headers, byte @NotNull [] body, @Nullable MediaType type, long expires) {
+		@NotNull
+		Entry withHeaders(@NotNull Headers headers, long expires) {
+			return new Entry(protocol, message, headers, body, type, expires);
+		}
+
+		@NotNull
+		Response toResponse(@NotNull Request request) {
+			return new Response.Builder()
+					.request(request)
+					.protocol(protocol)
+					.code(200)
+					.message(message)
+					.headers(headers)
+					.body(ResponseBody.create(body, type))
+					.build();
+		}
+	}
+}
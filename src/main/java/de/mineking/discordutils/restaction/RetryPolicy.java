@@ -0,0 +1,171 @@
+package de.mineking.discordutils.restaction;
+
+import net.dv8tion.jda.api.requests.Method;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Decides whether failed requests are retried and how long to wait before the next attempt. Retries are scheduled on the {@link de.mineking.discordutils.TaskScheduler} instead of blocking a thread.
+ * <p>
+ * By default, requests that failed with an {@link java.io.IOException} (like timeouts or connection resets) or with a 408 or 5xx response are retried, if their HTTP method is idempotent. Every policy has a retry budget that is shared by all requests using it: Every request earns a fraction of a retry and every retry spends one. This prevents retry storms when the remote host is down.
+ *
+ * @see HttpHost#setRetryPolicy(RetryPolicy)
+ * @see CustomRestAction#setRetryPolicy(RetryPolicy)
+ */
+public class RetryPolicy {
+	/**
+	 * A policy that never retries. This instance is shared and cannot be modified
+	 */
+	public final static RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO, true);
+
+	private final static Set<Method> idempotent = EnumSet.of(Method.GET, Method.PUT, Method.DELETE);
+
+	private final int maxAttempts;
+	private final Duration baseDelay;
+	private final Duration maxDelay;
+	private final boolean immutable;
+
+	private IntPredicate status = code -> code == 408 || code >= 500;
+	private boolean retryNonIdempotent = false;
+
+	private double budgetRatio = 0.1;
+	private double budgetMax = 10;
+	private double tokens = budgetMax;
+
+	/**
+	 * @param maxAttempts The maximum number of attempts, including the first one
+	 * @param baseDelay   The delay before the first retry. The delay doubles with every further retry
+	 * @param maxDelay    The maximum delay between two attempts
+	 */
+	public RetryPolicy(int maxAttempts, @NotNull Duration baseDelay, @NotNull Duration maxDelay) {
+		this(maxAttempts, baseDelay, maxDelay, false);
+	}
+
+	private RetryPolicy(int maxAttempts, @NotNull Duration baseDelay, @NotNull Duration maxDelay, boolean immutable) {
+		Checks.positive(maxAttempts, "maxAttempts");
+		Checks.notNull(baseDelay, "baseDelay");
+		Checks.notNull(maxDelay, "maxDelay");
+
+		this.maxAttempts = maxAttempts;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+		this.immutable = immutable;
+	}
+
+	/**
+	 * @param maxAttempts The maximum number of attempts, including the first one
+	 * @return A {@link RetryPolicy} with exponential backoff, starting at 500ms with a maximum of 30s
+	 */
+	@NotNull
+	public static RetryPolicy exponential(int maxAttempts) {
+		return new RetryPolicy(maxAttempts, Duration.ofMillis(500), Duration.ofSeconds(30));
+	}
+
+	/**
+	 * @param status A predicate to decide whether responses with the provided status code are retried
+	 * @return {@code this}
+	 */
+	@NotNull
+	public RetryPolicy retryOn(@NotNull IntPredicate status) {
+		Checks.notNull(status, "status");
+		checkMutable();
+
+		this.status = status;
+		return this;
+	}
+
+	/**
+	 * @param retry Whether requests with methods that are not idempotent, like {@code POST} and {@code PATCH}, are retried as well. Only enable this if the remote host can handle duplicate requests
+	 * @return {@code this}
+	 */
+	@NotNull
+	public RetryPolicy retryNonIdempotent(boolean retry) {
+		checkMutable();
+
+		this.retryNonIdempotent = retry;
+		return this;
+	}
+
+	/**
+	 * @param ratio The number of retries every request earns
+	 * @param max   The maximum number of retries that can be saved up. This is also the initial budget
+	 * @return {@code this}
+	 */
+	@NotNull
+	public synchronized RetryPolicy setBudget(double ratio, double max) {
+		Checks.check(ratio >= 0, "ratio may not be negative");
+		Checks.check(max >= 1, "max has to be at least 1");
+		checkMutable();
+
+		this.budgetRatio = ratio;
+		this.budgetMax = max;
+		this.tokens = Math.min(tokens, max);
+
+		return this;
+	}
+
+	/**
+	 * @return The maximum number of attempts, including the first one
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @return The number of retries that are currently available in the budget
+	 */
+	public synchronized double getBudget() {
+		return tokens;
+	}
+
+	void recordRequest() {
+		//Policies without retries never spend their budget
+		if(maxAttempts == 1) return;
+
+		synchronized(this) {
+			tokens = Math.min(budgetMax, tokens + budgetRatio);
+		}
+	}
+
+	private void checkMutable() {
+		if(immutable) throw new UnsupportedOperationException("RetryPolicy.NONE cannot be modified, create a new RetryPolicy instead");
+	}
+
+	/**
+	 * @param method  The HTTP method of the request
+	 * @param attempt The number of attempts that were already made
+	 * @param status  The status code of the response or {@code -1} if the request failed with an {@link java.io.IOException}
+	 * @return Whether the request should be retried. This spends one retry from the budget
+	 */
+	boolean shouldRetry(@NotNull Method method, int attempt, int status) {
+		if(attempt >= maxAttempts) return false;
+		if(!retryNonIdempotent && !idempotent.contains(method)) return false;
+		if(status >= 0 && !this.status.test(status)) return false;
+
+		synchronized(this) {
+			if(tokens < 1) return false;
+
+			tokens--;
+			return true;
+		}
+	}
+
+	/**
+	 * @param attempt The number of attempts that were already made
+	 * @return The delay before the next attempt. This uses exponential backoff with equal jitter
+	 */
+	@NotNull
+	Duration getDelay(int attempt) {
+		var delay = baseDelay.toMillis() << Math.min(attempt - 1, 30);
+		if(delay < 0 || delay > maxDelay.toMillis()) delay = maxDelay.toMillis();
+
+		var half = delay / 2;
+		return Duration.ofMillis(half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0));
+	}
+}
@@ -3,6 +3,8 @@ package de.mineking.discordutils.ui;
 import de.mineking.discordutils.ui.state.DataState;
 import de.mineking.discordutils.ui.state.SendState;
 import de.mineking.discordutils.ui.state.State;
+import de.mineking.discordutils.ui.state.StateCodec;
+import de.mineking.discordutils.ui.state.StateStore;
 import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.internal.utils.Checks;
@@ -23,10 +25,12 @@ public abstract class Menu {
 	@SuppressWarnings("rawtypes")
 	private final Set<EffectHandler> effect = new HashSet<>();
 
+	private StateCodec codec;
 
 	public Menu(@NotNull UIManager manager, @NotNull String id) {
 		this.manager = manager;
 		this.id = id;
+		this.codec = manager.getDefaultCodec();
 	}
 
 	/**
@@ -45,6 +49,28 @@ public abstract class Menu {
 		return id;
 	}
 
+	/**
+	 * @return The {@link StateCodec} used to store the state of this menu in component ids
+	 */
+	@NotNull
+	public StateCodec getCodec() {
+		return codec;
+	}
+
+	/**
+	 * @param codec The {@link StateCodec} to store the state of this menu in component ids. Menus that were sent with json states can still be loaded with every codec
+	 * @return {@code this}
+	 * @see StateCodec#compact(String...)
+	 * @see StateCodec#stored(StateStore, StateCodec)
+	 */
+	@NotNull
+	public Menu codec(@NotNull StateCodec codec) {
+		Checks.notNull(codec, "codec");
+
+		this.codec = codec;
+		return this;
+	}
+
 	/**
 	 * <i>Internal method</i>
 	 */
@@ -5,16 +5,22 @@ import de.mineking.discordutils.ui.components.types.ComponentRow;
 import de.mineking.discordutils.ui.state.DataState;
 import de.mineking.discordutils.ui.state.MessageSendState;
 import de.mineking.discordutils.ui.state.State;
+import de.mineking.discordutils.ui.state.StateCodec;
 import de.mineking.discordutils.ui.state.UpdateState;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.LayoutComponent;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
@@ -25,6 +31,8 @@ public class MessageMenu extends Menu {
 
 	private Consumer<DataState<MessageMenu>> cache;
 
+	private Duration renderBudget = Duration.ofMillis(1500);
+
 	MessageMenu(@NotNull UIManager manager, @NotNull String id, @NotNull MessageRenderer renderer, @NotNull List<ComponentRow> components) {
 		super(manager, id);
 
@@ -54,7 +62,10 @@ public class MessageMenu extends Menu {
 	public MessageEditData buildMessage(@NotNull UpdateState state) {
 		Checks.notNull(state, "state");
 
-		var data = new StringBuilder(state.getData().toString());
+		var capacity = this.components.stream().flatMap(r -> r.getComponents().stream()).mapToInt(c -> Button.ID_MAX_LENGTH - (this.getId() + ":" + c.getName() + ":").length()).sum();
+
+		var encoded = getCodec().encode(state.getData(), capacity);
+		var data = new StringBuilder(encoded);
 
 		var message = renderer.buildMessage(state, this.components.stream().map(r -> ActionRow.of(r.getComponents().stream().map(c -> {
 			var id = this.getId() + ":" + c.getName() + ":";
@@ -69,7 +80,7 @@ public class MessageMenu extends Menu {
 		}).toList())).toList());
 
 		if(!data.isEmpty())
-			throw new IllegalStateException("State is too large. Either add more components to give more space or shrink your state size: [%d] %s, left: [%d] %s".formatted(state.getData().toString().length(), state.getData().toString(), data.length(), data.toString()));
+			throw new IllegalStateException("State is too large. Either add more components to give more space or shrink your state size: [%d] %s, left: [%d] %s".formatted(encoded.length(), state.getData().toString(), data.length(), data.toString()));
 
 		return message.build();
 	}
@@ -87,6 +98,59 @@ public class MessageMenu extends Menu {
 	}
 
 
+	@NotNull
+	@Override
+	public MessageMenu codec(@NotNull StateCodec codec) {
+		return (MessageMenu) super.codec(codec);
+	}
+
+	/**
+	 * @return The time that {@link UpdateState#update()} waits for rendering before it disables all components to acknowledge the interaction
+	 */
+	@NotNull
+	public Duration getRenderBudget() {
+		return renderBudget;
+	}
+
+	/**
+	 * If rendering finishes within this time, {@link UpdateState#update()} acknowledges the interaction with a single edit. Otherwise, all components are disabled first and the message is edited again when rendering finished.
+	 *
+	 * @param budget The render budget. {@link Duration#ZERO} always disables the components first
+	 * @return {@code this}
+	 */
+	@NotNull
+	public MessageMenu renderBudget(@NotNull Duration budget) {
+		Checks.notNull(budget, "budget");
+		Checks.check(!budget.isNegative(), "budget may not be negative");
+
+		this.renderBudget = budget;
+		return this;
+	}
+
+	/**
+	 * <i>Internal method</i>
+	 * <p>
+	 * Compares a new render with the message as it currently is on discord. The previous state is taken from the message itself, so that edits that did not go through this menu are taken into account.
+	 *
+	 * @param previous The current message, usually {@link net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent#getMessage()}
+	 * @param message  The new message
+	 * @return What changed compared to the current message
+	 */
+	@NotNull
+	public RenderChange diff(@NotNull Message previous, @NotNull MessageEditData message) {
+		Checks.notNull(previous, "previous");
+		Checks.notNull(message, "message");
+
+		//Files cannot be compared cheaply, so messages with files are always edited
+		if(!previous.getAttachments().isEmpty() || !message.getFiles().isEmpty()) return RenderChange.MESSAGE;
+
+		var old = Fingerprint.of(previous.getContentRaw(), previous.getEmbeds(), previous.getActionRows());
+		var fingerprint = Fingerprint.of(message.getContent(), message.getEmbeds(), message.getComponents());
+
+		if(old.visible != fingerprint.visible) return RenderChange.MESSAGE;
+		return old.ids == fingerprint.ids ? RenderChange.NONE : RenderChange.COMPONENTS;
+	}
+
 	/**
 	 * @param handler A handler that is called before rendering. This can be used to initialize cache values
 	 * @return {@code this}
@@ -130,4 +194,60 @@ public class MessageMenu extends Menu {
 	public void display(@NotNull IReplyCallback event) {
 		display(event, true);
 	}
+
+	/**
+	 * The difference between two renders of a menu
+	 */
+	public enum RenderChange {
+		/**
+		 * The messages are identical
+		 */
+		NONE,
+		/**
+		 * Only component ids changed. This happens when the state changed without affecting the visible message
+		 */
+		COMPONENTS,
+		/**
+		 * The visible message changed or there is no previous render
+		 */
+		MESSAGE
+	}
+
+	private record Fingerprint(long visible, long ids) {
+		@NotNull
+		static Fingerprint of(@NotNull String content, @NotNull List<MessageEmbed> embeds, @NotNull List<? extends LayoutComponent> components) {
+			var visible = new StringBuilder(content);
+			var ids = new StringBuilder();
+
+			//Received embeds contain additional information like image sizes. Rebuilding them only keeps what can be sent
+			embeds.forEach(e -> {
+				var builder = new EmbedBuilder(e);
+				visible.append(builder.isEmpty() ? e.toData() : builder.build().toData());
+			});
+			components.forEach(row -> {
+				visible.append('|');
+
+				row.getActionComponents().forEach(c -> {
+					var data = c.toData();
+					data.remove("custom_id");
+
+					visible.append(data);
+					ids.append(c.getId()).append('|');
+				});
+			});
+
+			return new Fingerprint(hash(visible), hash(ids));
+		}
+
+		private static long hash(@NotNull CharSequence text) {
+			var hash = 0xcbf29ce484222325L;
+
+			for(int i = 0; i < text.length(); i++) {
+				hash ^= text.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+
+			return hash;
+		}
+	}
 }
@@ -8,6 +8,9 @@ import de.mineking.discordutils.ui.modal.ModalMenu;
 import de.mineking.discordutils.ui.modal.ModalResponse;
 import de.mineking.discordutils.ui.modal.TextComponent;
 import de.mineking.discordutils.ui.state.DataState;
+import de.mineking.discordutils.ui.state.StateCodec;
+import de.mineking.discordutils.ui.state.StateStore;
+import de.mineking.discordutils.ui.state.StoredStateCodec;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 
@@ -21,10 +24,45 @@ public class UIManager extends Manager {
 	private final Map<String, MessageMenu> menus = new HashMap<>();
 	private final Map<String, ModalMenu> modals = new HashMap<>();
 
+	private StateCodec defaultCodec = StateCodec.JSON;
+
 	public UIManager(@NotNull DiscordUtils.Builder<?> manager) {
 		eventManager = manager.getEventManager();
 	}
 
+	/**
+	 * @return The {@link StateCodec} that new menus use
+	 */
+	@NotNull
+	public StateCodec getDefaultCodec() {
+		return defaultCodec;
+	}
+
+	/**
+	 * @param codec The {@link StateCodec} that menus created after this call use. You can still change the codec of individual menus with {@link Menu#codec(StateCodec)}
+	 * @return {@code this}
+	 */
+	@NotNull
+	public UIManager setDefaultCodec(@NotNull StateCodec codec) {
+		Checks.notNull(codec, "codec");
+
+		this.defaultCodec = codec;
+		return this;
+	}
+
+	/**
+	 * Keeps the states of menus created after this call in the provided {@link StateStore}. Component ids then only contain a short key and, if there is enough space, the inline state as fallback.
+	 *
+	 * @param store The {@link StateStore}
+	 * @return {@code this}
+	 * @see StoredStateCodec
+	 */
+	@NotNull
+	public UIManager useStateStore(@NotNull StateStore store) {
+		Checks.notNull(store, "store");
+		return setDefaultCodec(StateCodec.stored(store, defaultCodec));
+	}
+
 	/**
 	 * @param name The id of the menu
 	 * @return The {@link MessageMenu} with the provided id
@@ -64,7 +102,12 @@ public class UIManager extends Manager {
 
 		var menu = new MessageMenu(this, identifier, renderer, components);
 
-		components.stream().flatMap(c -> c.getComponents().stream()).forEach(c -> eventManager.addEventHandler(c.createHandler(menu, event -> event.getComponentId().startsWith(identifier + ":" + c.getName() + ":"))));
+		components.stream().flatMap(c -> c.getComponents().stream()).forEach(c -> {
+			var prefix = identifier + ":" + c.getName() + ":";
+
+			var handler = c.createHandler(menu, event -> event.getComponentId().startsWith(prefix));
+			if(handler != null) eventManager.addEventHandler(prefix, handler);
+		});
 
 		menus.put(identifier, menu);
 
@@ -101,7 +144,7 @@ public class UIManager extends Manager {
 
 		var result = new ModalMenu(this, identifier, title, components, handler);
 
-		eventManager.addEventHandler(result.createHandler());
+		eventManager.addEventHandler(identifier + ":", result.createHandler());
 		modals.put(identifier, result);
 
 		return result;
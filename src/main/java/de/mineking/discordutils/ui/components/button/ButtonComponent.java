@@ -17,17 +17,17 @@ import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 public class ButtonComponent extends Component<ButtonInteractionEvent> {
-	private final static ScheduledExecutorService executor = Executors.newScheduledThreadPool(0);
 	private final LabelProvider label;
 	private final Function<DataState<MessageMenu>, ButtonColor> color;
 	private Predicate<DataState<MessageMenu>> disabled = state -> false;
@@ -37,7 +37,7 @@ public class ButtonComponent extends Component<ButtonInteractionEvent> {
 	private Consumer<UpdateState> doubleClick = null;
 	private int doubleClickTimeout = 3;
 
-	private Future<?> future;
+	private final Map<Click, UpdateState> pending = new ConcurrentHashMap<>();
 
 	/**
 	 * @param name  The name of this component. Has to be unique on a menu
@@ -208,19 +208,26 @@ public class ButtonComponent extends Component<ButtonInteractionEvent> {
 	public IEventHandler<ButtonInteractionEvent> createHandler(@NotNull MessageMenu menu, @NotNull Predicate<ButtonInteractionEvent> filter) {
 		return new FilteredEventHandler<>(ButtonInteractionEvent.class, filter) {
 			@Override
-			public synchronized void handleEvent(ButtonInteractionEvent event) {
+			public void handleEvent(ButtonInteractionEvent event) {
 				var state = UpdateState.load(menu, event);
 
 				if(doubleClick == null) handler.accept(state);
 				else {
-					if(future != null && !future.isDone()) {
-						future.cancel(true);
-						future = null;
+					//Clicks are tracked per message and user, so that users do not interfere with each other. Whoever removes the pending click first, either the second click or the timeout, handles it
+					var click = new Click(event.getMessageIdLong(), event.getUser().getIdLong());
+					var second = new AtomicBoolean();
 
-						doubleClick.accept(state);
-					} else {
+					pending.compute(click, (k, current) -> {
+						second.set(current != null);
+						return current == null ? state : null;
+					});
+
+					if(second.get()) doubleClick.accept(state);
+					else {
 						event.deferEdit().queue();
-						future = executor.schedule(() -> handler.accept(state), doubleClickTimeout, TimeUnit.SECONDS);
+						CompletableFuture.runAsync(() -> {
+							if(pending.remove(click, state)) handler.accept(state);
+						}, menu.getManager().getManager().getScheduler().delayed(doubleClickTimeout, TimeUnit.SECONDS));
 					}
 				}
 			}
@@ -238,4 +245,7 @@ public class ButtonComponent extends Component<ButtonInteractionEvent> {
 
 		return button.withDisabled(disabled.test(state));
 	}
+
+	private record Click(long message, long user) {
+	}
 }
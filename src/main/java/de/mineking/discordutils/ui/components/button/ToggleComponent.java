@@ -4,6 +4,7 @@ import de.mineking.discordutils.ui.components.button.label.EmojiLabel;
 import de.mineking.discordutils.ui.components.button.label.LabelProvider;
 import de.mineking.discordutils.ui.components.button.label.TextLabel;
 import de.mineking.discordutils.ui.state.MessageSendState;
+import de.mineking.discordutils.ui.state.StateKey;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import org.jetbrains.annotations.NotNull;
@@ -12,9 +13,11 @@ import org.jetbrains.annotations.Nullable;
 import java.util.function.Function;
 
 public class ToggleComponent extends ButtonComponent {
+	private final StateKey.BooleanKey key;
+
 	@Override
 	public void register(@NotNull MessageSendState state, @Nullable IReplyCallback event) {
-		state.setState(getName(), Boolean.class, current -> current != null && current);
+		state.setState(key, state.getOptionalState(key).orElse(false));
 	}
 
 	/**
@@ -23,10 +26,16 @@ public class ToggleComponent extends ButtonComponent {
 	 * @param label The label to use
 	 */
 	public ToggleComponent(@NotNull String name, @NotNull Function<Boolean, ButtonColor> color, @NotNull LabelProvider label) {
-		super(name, state -> color.apply(state.getState(name, boolean.class)), label);
+		this(StateKey.ofBoolean(name), color, label);
+	}
+
+	private ToggleComponent(@NotNull StateKey.BooleanKey key, @NotNull Function<Boolean, ButtonColor> color, @NotNull LabelProvider label) {
+		super(key.getName(), state -> color.apply(state.getState(key)), label);
+
+		this.key = key;
 
 		appendHandler(state -> {
-			state.setState(name, boolean.class, current -> !current);
+			state.setState(key, !state.getState(key));
 			state.update();
 		});
 	}
@@ -8,6 +8,7 @@ import de.mineking.discordutils.ui.Menu;
 import de.mineking.discordutils.ui.UIManager;
 import de.mineking.discordutils.ui.state.DataState;
 import de.mineking.discordutils.ui.state.State;
+import de.mineking.discordutils.ui.state.StateCodec;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
 import net.dv8tion.jda.api.interactions.components.text.TextInput;
@@ -55,7 +56,10 @@ public class ModalMenu extends Menu {
 	public Modal buildModal(@NotNull DataState<ModalMenu> state) {
 		Checks.notNull(state, "state");
 
-		var data = new StringBuilder(state.getData().toString());
+		var capacity = Modal.MAX_ID_LENGTH - (this.getId() + ":").length() + components.stream().mapToInt(c -> TextInput.MAX_ID_LENGTH - (c.getName() + ":").length()).sum();
+
+		var encoded = getCodec().encode(state.getData(), capacity);
+		var data = new StringBuilder(encoded);
 
 		var id = this.getId() + ":";
 
@@ -78,7 +82,7 @@ public class ModalMenu extends Menu {
 		}).toList()).build();
 
 		if(!data.isEmpty())
-			throw new IllegalStateException("State is too large. Either add more components to give more space or shrink your state size: [%d] %s, left: [%d] %s".formatted(state.getData().toString().length(), state.getData().toString(), data.length(), data.toString()));
+			throw new IllegalStateException("State is too large. Either add more components to give more space or shrink your state size: [%d] %s, left: [%d] %s".formatted(encoded.length(), state.getData().toString(), data.length(), data.toString()));
 
 		return temp;
 	}
@@ -95,6 +99,12 @@ public class ModalMenu extends Menu {
 		return (ModalMenu) super.effect(name, handler);
 	}
 
+	@NotNull
+	@Override
+	public ModalMenu codec(@NotNull StateCodec codec) {
+		return (ModalMenu) super.codec(codec);
+	}
+
 	/**
 	 * @param handler A handler that is called before rendering. This can be used to initialize cache values
 	 * @return {@code this}
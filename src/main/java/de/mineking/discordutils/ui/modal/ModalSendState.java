@@ -3,6 +3,7 @@ package de.mineking.discordutils.ui.modal;
 import com.google.gson.JsonObject;
 import de.mineking.discordutils.ui.state.DataState;
 import de.mineking.discordutils.ui.state.SendState;
+import de.mineking.discordutils.ui.state.StateKey;
 import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
 import net.dv8tion.jda.api.interactions.callbacks.IModalCallback;
 import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
@@ -57,6 +58,36 @@ public class ModalSendState extends SendState<ModalMenu> {
 		return (ModalSendState) super.setState(name, type, value);
 	}
 
+	@NotNull
+	@Override
+	public <T> ModalSendState setState(@NotNull StateKey<T> key, @Nullable T value) {
+		return (ModalSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public ModalSendState setState(@NotNull StateKey.IntKey key, int value) {
+		return (ModalSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public ModalSendState setState(@NotNull StateKey.LongKey key, long value) {
+		return (ModalSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public ModalSendState setState(@NotNull StateKey.BooleanKey key, boolean value) {
+		return (ModalSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public <T> ModalSendState updateState(@NotNull StateKey<T> key, @NotNull Function<T, T> value) {
+		return (ModalSendState) super.updateState(key, value);
+	}
+
 	@NotNull
 	@Override
 	public ModalSendState putStates(@NotNull Map<String, ?> states) {
@@ -0,0 +1,318 @@
+package de.mineking.discordutils.ui.state;
+
+import com.google.gson.*;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link StateCodec} that stores states in a binary format instead of json text. State names from the key dictionary are stored as small integers, numbers as varints and the result is packed into 94 printable ascii characters.
+ * <p>
+ * Encoded states start with a marker and a format version. Everything else, like states of menus sent before switching to this codec, is decoded as json. If the json text of a state is shorter than the compact form, the json text is used.
+ *
+ * @see StateCodec#compact(String...)
+ */
+public class CompactStateCodec implements StateCodec {
+	/**
+	 * The current version of the binary format
+	 */
+	public final static int VERSION = 1;
+
+	private final static char MARKER = '~';
+	private final static int BASE = 94;
+	private final static char OFFSET = '!';
+
+	private final static int NULL = 0;
+	private final static int FALSE = 1;
+	private final static int TRUE = 2;
+	private final static int INTEGER = 3;
+	private final static int FLOAT = 4;
+	private final static int DOUBLE = 5;
+	private final static int NUMBER = 6;
+	private final static int STRING = 7;
+	private final static int ARRAY = 8;
+	private final static int OBJECT = 9;
+	private final static int SMALL_INTEGER = 16;
+
+	private final List<String> keys;
+	private final Map<String, Integer> index = new HashMap<>();
+
+	/**
+	 * @param keys The key dictionary. You may append keys later, but you must not remove or reorder keys, because this would break menus that are already sent
+	 */
+	public CompactStateCodec(@NotNull List<String> keys) {
+		Checks.noneNull(keys, "keys");
+
+		this.keys = List.copyOf(keys);
+		for(int i = 0; i < this.keys.size(); i++) index.putIfAbsent(this.keys.get(i), i);
+	}
+
+	@NotNull
+	@Override
+	public String encode(@NotNull JsonObject data) {
+		Checks.notNull(data, "data");
+
+		var out = new ByteArrayOutputStream();
+		writeVarint(out, VERSION);
+		writeObject(out, data);
+
+		var json = data.toString();
+		var compact = MARKER + toBase(out.toByteArray());
+
+		return compact.length() < json.length() ? compact : json;
+	}
+
+	@NotNull
+	@Override
+	public JsonObject decode(@NotNull String data) {
+		Checks.notNull(data, "data");
+
+		if(data.isEmpty() || data.charAt(0) != MARKER) return JSON.decode(data);
+
+		var in = new Input(fromBase(data, 1));
+
+		var version = (int) in.readVarint();
+		if(version != VERSION) throw new IllegalStateException("Unsupported state version " + version);
+
+		return readObject(in);
+	}
+
+	private void writeObject(ByteArrayOutputStream out, JsonObject object) {
+		writeVarint(out, object.size());
+
+		for(var e : object.entrySet()) {
+			var key = index.get(e.getKey());
+
+			//The lowest bit distinguishes dictionary keys from literals, so that appending keys does not change existing ids
+			if(key != null) writeVarint(out, (long) key << 1);
+			else {
+				var bytes = e.getKey().getBytes(StandardCharsets.UTF_8);
+				writeVarint(out, ((long) bytes.length << 1) | 1);
+				out.writeBytes(bytes);
+			}
+
+			writeValue(out, e.getValue());
+		}
+	}
+
+	private void writeValue(ByteArrayOutputStream out, JsonElement element) {
+		if(element == null || element.isJsonNull()) out.write(NULL);
+		else if(element instanceof JsonObject o) {
+			out.write(OBJECT);
+			writeObject(out, o);
+		} else if(element instanceof JsonArray a) {
+			out.write(ARRAY);
+			writeVarint(out, a.size());
+			for(var e : a) writeValue(out, e);
+		} else {
+			var primitive = element.getAsJsonPrimitive();
+
+			if(primitive.isBoolean()) out.write(primitive.getAsBoolean() ? TRUE : FALSE);
+			else if(primitive.isNumber()) writeNumber(out, primitive.getAsString());
+			else writeString(out, STRING, primitive.getAsString());
+		}
+	}
+
+	private static void writeNumber(ByteArrayOutputStream out, String number) {
+		//Keep the distinction between integers and decimals, because State#numberStrategy depends on it
+		if(number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+			try {
+				var value = Long.parseLong(number);
+
+				if(value >= 0 && value < 256 - SMALL_INTEGER) out.write(SMALL_INTEGER + (int) value);
+				else {
+					out.write(INTEGER);
+					writeVarint(out, (value << 1) ^ (value >> 63));
+				}
+
+				return;
+			} catch(NumberFormatException ignored) {
+			}
+		} else {
+			var value = Double.parseDouble(number);
+
+			if(Double.toString(value).equals(number)) {
+				if((double) (float) value == value) {
+					out.write(FLOAT);
+					writeFixed(out, Float.floatToIntBits((float) value), 4);
+				} else {
+					out.write(DOUBLE);
+					writeFixed(out, Double.doubleToLongBits(value), 8);
+				}
+
+				return;
+			}
+		}
+
+		writeString(out, NUMBER, number);
+	}
+
+	private static void writeString(ByteArrayOutputStream out, int type, String value) {
+		var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		out.write(type);
+		writeVarint(out, bytes.length);
+		out.writeBytes(bytes);
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		out.write((int) value);
+	}
+
+	private static void writeFixed(ByteArrayOutputStream out, long value, int bytes) {
+		for(int i = bytes - 1; i >= 0; i--) out.write((int) (value >>> (i * 8)) & 0xFF);
+	}
+
+	private JsonObject readObject(Input in) {
+		var result = new JsonObject();
+		var size = in.readVarint();
+
+		for(long i = 0; i < size; i++) {
+			var key = in.readVarint();
+
+			String name;
+			if((key & 1) == 0) {
+				if(key >>> 1 >= keys.size()) throw new IllegalStateException("Unknown state key " + (key >>> 1));
+				name = keys.get((int) (key >>> 1));
+			} else name = in.readString((int) (key >>> 1));
+
+			result.add(name, readValue(in));
+		}
+
+		return result;
+	}
+
+	private JsonElement readValue(Input in) {
+		var type = in.read();
+
+		return switch(type) {
+			case NULL -> JsonNull.INSTANCE;
+			case FALSE -> new JsonPrimitive(false);
+			case TRUE -> new JsonPrimitive(true);
+			case INTEGER -> {
+				var value = in.readVarint();
+				yield new JsonPrimitive((value >>> 1) ^ -(value & 1));
+			}
+			case FLOAT -> new JsonPrimitive((double) Float.intBitsToFloat((int) in.readFixed(4)));
+			case DOUBLE -> new JsonPrimitive(Double.longBitsToDouble(in.readFixed(8)));
+			case NUMBER -> new JsonPrimitive(new BigDecimal(in.readString((int) in.readVarint())));
+			case STRING -> new JsonPrimitive(in.readString((int) in.readVarint()));
+			case ARRAY -> {
+				var result = new JsonArray();
+				var size = in.readVarint();
+
+				for(long i = 0; i < size; i++) result.add(readValue(in));
+				yield result;
+			}
+			case OBJECT -> readObject(in);
+			default -> {
+				if(type >= SMALL_INTEGER) yield new JsonPrimitive(type - SMALL_INTEGER);
+				throw new IllegalStateException("Unknown value type " + type);
+			}
+		};
+	}
+
+	/*
+	 * Every 4 bytes are packed into 5 characters (94^5 > 2^32). A trailing group of n bytes uses n + 1 characters.
+	 */
+
+	private static String toBase(byte[] bytes) {
+		var result = new StringBuilder(bytes.length * 5 / 4 + 2);
+
+		for(int i = 0; i < bytes.length; i += 4) {
+			var length = Math.min(4, bytes.length - i);
+
+			long value = 0;
+			for(int j = 0; j < length; j++) value = (value << 8) | (bytes[i + j] & 0xFF);
+
+			var digits = new char[length + 1];
+			for(int j = digits.length - 1; j >= 0; j--) {
+				digits[j] = (char) (OFFSET + value % BASE);
+				value /= BASE;
+			}
+
+			result.append(digits);
+		}
+
+		return result.toString();
+	}
+
+	private static byte[] fromBase(String text, int offset) {
+		var chars = text.length() - offset;
+		var remainder = chars % 5;
+
+		if(remainder == 1) throw new IllegalStateException("Invalid state length");
+
+		var result = new byte[chars / 5 * 4 + Math.max(0, remainder - 1)];
+		var pos = 0;
+
+		for(int i = offset; i < text.length(); i += 5) {
+			var length = Math.min(5, text.length() - i);
+
+			long value = 0;
+			for(int j = 0; j < length; j++) {
+				var digit = text.charAt(i + j) - OFFSET;
+				if(digit < 0 || digit >= BASE) throw new IllegalStateException("Invalid state character '" + text.charAt(i + j) + "'");
+
+				value = value * BASE + digit;
+			}
+
+			for(int j = length - 2; j >= 0; j--) result[pos + j] = (byte) (value >>> ((length - 2 - j) * 8));
+			pos += length - 1;
+		}
+
+		return result;
+	}
+
+	private static final class Input {
+		private final byte[] data;
+		private int pos;
+
+		Input(byte[] data) {
+			this.data = data;
+		}
+
+		int read() {
+			if(pos >= data.length) throw new IllegalStateException("Unexpected end of state");
+			return data[pos++] & 0xFF;
+		}
+
+		long readVarint() {
+			long result = 0;
+
+			for(int shift = 0; shift < 64; shift += 7) {
+				var b = read();
+				result |= (long) (b & 0x7F) << shift;
+
+				if((b & 0x80) == 0) return result;
+			}
+
+			throw new IllegalStateException("Invalid varint");
+		}
+
+		long readFixed(int bytes) {
+			long result = 0;
+			for(int i = 0; i < bytes; i++) result = (result << 8) | read();
+			return result;
+		}
+
+		String readString(int length) {
+			if(length < 0 || pos + length > data.length) throw new IllegalStateException("Unexpected end of state");
+
+			var result = new String(data, pos, length, StandardCharsets.UTF_8);
+			pos += length;
+			return result;
+		}
+	}
+}
@@ -1,7 +1,8 @@
 package de.mineking.discordutils.ui.state;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import de.mineking.discordutils.ui.Menu;
 import de.mineking.discordutils.ui.modal.ModalMenu;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
@@ -14,6 +15,7 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
@@ -23,6 +25,8 @@ public class DataState<M extends Menu> extends State<M> {
 	protected final Map<String, Object> cache = new HashMap<>();
 	protected final IReplyCallback event;
 
+	private final Map<String, Decoded> decoded = new HashMap<>();
+
 	public DataState(@Nullable IReplyCallback event, @NotNull M menu, @NotNull JsonObject data) {
 		super(menu, data);
 
@@ -45,7 +49,7 @@ public class DataState<M extends Menu> extends State<M> {
 
 		event.getValues().forEach(c -> data.append(c.getId().split(":", 2)[1]));
 
-		var result = new DataState<>(event, menu, JsonParser.parseString(data.toString()).getAsJsonObject());
+		var result = new DataState<>(event, menu, menu.getCodec().decode(data.toString()));
 		menu.initialize(result);
 		return result;
 	}
@@ -76,7 +80,9 @@ public class DataState<M extends Menu> extends State<M> {
 	@Nullable
 	public <T> T getNullableState(@NotNull String name, @NotNull Type type) {
 		Checks.notNull(name, "name");
+		Checks.notNull(type, "type");
 
+		//Name based lookups are not memoized, so that callers can modify the result and set it again
 		var element = data.get(name);
 		if(element == null) return null;
 
@@ -143,6 +149,62 @@ public class DataState<M extends Menu> extends State<M> {
 		return getOptionalState(name, type).orElseThrow();
 	}
 
+	/**
+	 * The value is decoded once and memoized until the state is changed. You should therefore not modify the returned object without setting the state again.
+	 *
+	 * @param key The {@link StateKey}
+	 * @return The state value or {@code null}
+	 */
+	@Nullable
+	public <T> T getNullableState(@NotNull StateKey<T> key) {
+		Checks.notNull(key, "key");
+		return decode(key.getName(), key.getType(), key);
+	}
+
+	/**
+	 * @param key The {@link StateKey}
+	 * @return An {@link Optional} holding the state value
+	 * @see #getNullableState(StateKey)
+	 */
+	@NotNull
+	public <T> Optional<T> getOptionalState(@NotNull StateKey<T> key) {
+		return Optional.ofNullable(getNullableState(key));
+	}
+
+	/**
+	 * @param key The {@link StateKey}
+	 * @return The value of the state. If there is no value present, an exception is thrown
+	 * @see #getNullableState(StateKey)
+	 */
+	@NotNull
+	public <T> T getState(@NotNull StateKey<T> key) {
+		return getOptionalState(key).orElseThrow();
+	}
+
+	/**
+	 * @param key The {@link StateKey.IntKey}
+	 * @return The value of the state. If there is no value present, an exception is thrown
+	 */
+	public int getState(@NotNull StateKey.IntKey key) {
+		return key.decodeInt(getElement(key));
+	}
+
+	/**
+	 * @param key The {@link StateKey.LongKey}
+	 * @return The value of the state. If there is no value present, an exception is thrown
+	 */
+	public long getState(@NotNull StateKey.LongKey key) {
+		return key.decodeLong(getElement(key));
+	}
+
+	/**
+	 * @param key The {@link StateKey.BooleanKey}
+	 * @return The value of the state. If there is no value present, an exception is thrown
+	 */
+	public boolean getState(@NotNull StateKey.BooleanKey key) {
+		return key.decodeBoolean(getElement(key));
+	}
+
 	/**
 	 * States are json-serialized and then saved in the empty space of component ids. This means that state storage is very limited. Therefore, you should only store data in the state that you really need to.
 	 *
@@ -203,14 +265,102 @@ public class DataState<M extends Menu> extends State<M> {
 		var currentValue = this.<T>getNullableState(name, type);
 		var newValue = value.apply(currentValue);
 
-		if(newValue != null) data.add(name, gson.toJsonTree(newValue));
-		else data.remove(name);
+		write(name, newValue == null ? null : gson.toJsonTree(newValue));
 
 		if(!Objects.equals(newValue, currentValue)) menu.triggerEffect(this, name, currentValue, newValue);
 
 		return this;
 	}
 
+	/**
+	 * @param key   The {@link StateKey}
+	 * @param value The value
+	 * @return {@code this}
+	 */
+	@NotNull
+	public <T> DataState<M> setState(@NotNull StateKey<T> key, @Nullable T value) {
+		return updateState(key, old -> value);
+	}
+
+	/**
+	 * @param key   The {@link StateKey.IntKey}
+	 * @param value The value
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DataState<M> setState(@NotNull StateKey.IntKey key, int value) {
+		Checks.notNull(key, "key");
+
+		var current = data.get(key.getName());
+		var changed = current == null || current.isJsonNull() || key.decodeInt(current) != value;
+
+		write(key.getName(), new JsonPrimitive(value));
+
+		if(changed) menu.triggerEffect(this, key.getName(), current == null || current.isJsonNull() ? null : key.decodeInt(current), value);
+
+		return this;
+	}
+
+	/**
+	 * @param key   The {@link StateKey.LongKey}
+	 * @param value The value
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DataState<M> setState(@NotNull StateKey.LongKey key, long value) {
+		Checks.notNull(key, "key");
+
+		var current = data.get(key.getName());
+		var changed = current == null || current.isJsonNull() || key.decodeLong(current) != value;
+
+		write(key.getName(), new JsonPrimitive(value));
+
+		if(changed) menu.triggerEffect(this, key.getName(), current == null || current.isJsonNull() ? null : key.decodeLong(current), value);
+
+		return this;
+	}
+
+	/**
+	 * @param key   The {@link StateKey.BooleanKey}
+	 * @param value The value
+	 * @return {@code this}
+	 */
+	@NotNull
+	public DataState<M> setState(@NotNull StateKey.BooleanKey key, boolean value) {
+		Checks.notNull(key, "key");
+
+		var current = data.get(key.getName());
+		var changed = current == null || current.isJsonNull() || key.decodeBoolean(current) != value;
+
+		write(key.getName(), new JsonPrimitive(value));
+
+		if(changed) menu.triggerEffect(this, key.getName(), current == null || current.isJsonNull() ? null : key.decodeBoolean(current), value);
+
+		return this;
+	}
+
+	/**
+	 * @param key   The {@link StateKey}
+	 * @param value A function to calculate the new state from the current state
+	 * @return {@code this}
+	 */
+	@NotNull
+	public <T> DataState<M> updateState(@NotNull StateKey<T> key, @NotNull Function<T, T> value) {
+		Checks.notNull(key, "key");
+		Checks.notNull(value, "value");
+
+		//The current value is decoded again, because the memoized value might have been modified by the caller
+		var current = data.get(key.getName());
+		var currentValue = current == null || current.isJsonNull() ? null : key.decode(current);
+		var newValue = value.apply(currentValue);
+
+		write(key.getName(), newValue == null ? null : key.encode(newValue));
+
+		if(!Objects.equals(newValue, currentValue)) menu.triggerEffect(this, key.getName(), currentValue, newValue);
+
+		return this;
+	}
+
 	@NotNull
 	@Override
 	public DataState<M> putStates(@NotNull Map<String, ?> states) {
@@ -272,4 +422,39 @@ public class DataState<M extends Menu> extends State<M> {
 
 		return value;
 	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T decode(@NotNull String name, @NotNull Type type, @NotNull StateKey<T> key) {
+		var element = data.get(name);
+		if(element == null || element.isJsonNull()) return null;
+
+		//The element is compared by identity, so that changes to the data that do not go through setState are still visible
+		var memo = decoded.get(name);
+		if(memo != null && memo.element == element && memo.type.equals(type)) return (T) memo.value;
+
+		T value = key.decode(element);
+		decoded.put(name, new Decoded(element, type, value));
+
+		return value;
+	}
+
+	@NotNull
+	private JsonElement getElement(@NotNull StateKey<?> key) {
+		Checks.notNull(key, "key");
+
+		var element = data.get(key.getName());
+		if(element == null || element.isJsonNull()) throw new NoSuchElementException("No value present");
+
+		return element;
+	}
+
+	private void write(@NotNull String name, @Nullable JsonElement value) {
+		decoded.remove(name);
+
+		if(value != null) data.add(name, value);
+		else data.remove(name);
+	}
+
+	private record Decoded(JsonElement element, Type type, Object value) {
+	}
 }
@@ -0,0 +1,199 @@
+package de.mineking.discordutils.ui.state;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * A {@link StateStore} that keeps states in a memory mapped file, so that they survive restarts.
+ * <p>
+ * The file consists of a fixed number of slots with a fixed size. Every key can be stored in two slots. If both are in use, the entry that expires first is replaced. States that do not fit into a slot are not stored.
+ */
+public class MappedStateStore implements StateStore, AutoCloseable {
+	private final static int MAGIC = 0x44555353;
+	private final static int VERSION = 1;
+
+	private final static int HEADER = 16;
+	private final static int MAX_KEY_LENGTH = 32;
+
+	private final static int KEY = 0;
+	private final static int EXPIRY = 1 + MAX_KEY_LENGTH;
+	private final static int LENGTH = EXPIRY + 8;
+	private final static int DATA = LENGTH + 4;
+
+	private final static int LOCKS = 64;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+
+	private final int slots;
+	private final int slotSize;
+	private final long ttl;
+
+	//Slots are locked in stripes, so that lookups of different states do not wait for each other
+	private final Object[] locks;
+
+	/**
+	 * @param file     The file to store states in. If the file was created with a different slot configuration, all states in it are discarded
+	 * @param slots    The number of slots
+	 * @param slotSize The size of a single slot in bytes
+	 * @param ttl      How long states are kept after their last access
+	 */
+	public MappedStateStore(@NotNull Path file, int slots, int slotSize, @NotNull Duration ttl) throws IOException {
+		Checks.notNull(file, "file");
+		Checks.positive(slots, "slots");
+		Checks.check(slotSize > DATA, "slotSize has to be greater than %d", DATA);
+		Checks.notNull(ttl, "ttl");
+		Checks.check(HEADER + (long) slots * slotSize <= Integer.MAX_VALUE, "File is too large");
+
+		this.slots = slots;
+		this.slotSize = slotSize;
+		this.ttl = ttl.toMillis();
+
+		this.locks = new Object[Math.min(slots, LOCKS)];
+		for(int i = 0; i < locks.length; i++) locks[i] = new Object();
+
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) slots * slotSize);
+
+		if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != slots || buffer.getInt(12) != slotSize) {
+			for(int i = 0; i < slots; i++) buffer.put(offset(i) + KEY, (byte) 0);
+
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, slots);
+			buffer.putInt(12, slotSize);
+		}
+	}
+
+	@Override
+	public boolean put(@NotNull String key, @NotNull JsonObject data) {
+		var name = key.getBytes(StandardCharsets.UTF_8);
+		var content = data.toString().getBytes(StandardCharsets.UTF_8);
+
+		if(name.length == 0 || name.length > MAX_KEY_LENGTH || content.length > slotSize - DATA) return false;
+
+		var first = slot(key);
+		var second = (first + 1) % slots;
+
+		//Stripes are always locked in the same order to avoid deadlocks
+		var a = first % locks.length;
+		var b = second % locks.length;
+
+		synchronized(locks[Math.min(a, b)]) {
+			synchronized(locks[Math.max(a, b)]) {
+				write(first, second, name, content);
+			}
+		}
+
+		return true;
+	}
+
+	private void write(int first, int second, byte[] name, byte[] content) {
+		var now = System.currentTimeMillis();
+
+		int target;
+		if(matches(first, name) || isFree(first, now)) target = first;
+		else if(matches(second, name) || isFree(second, now)) target = second;
+		else target = buffer.getLong(offset(first) + EXPIRY) <= buffer.getLong(offset(second) + EXPIRY) ? first : second;
+
+		var offset = offset(target);
+
+		//The key length is written last, so that a write that is interrupted by a crash leaves a free slot
+		buffer.put(offset + KEY, (byte) 0);
+		buffer.put(offset + KEY + 1, name);
+		buffer.putLong(offset + EXPIRY, now + ttl);
+		buffer.putInt(offset + LENGTH, content.length);
+		buffer.put(offset + DATA, content);
+		buffer.put(offset + KEY, (byte) name.length);
+	}
+
+	@Nullable
+	@Override
+	public JsonObject get(@NotNull String key) {
+		var name = key.getBytes(StandardCharsets.UTF_8);
+		if(name.length == 0 || name.length > MAX_KEY_LENGTH) return null;
+
+		var now = System.currentTimeMillis();
+		var first = slot(key);
+
+		for(var slot : new int[] { first, (first + 1) % slots }) {
+			byte[] content;
+
+			synchronized(lock(slot)) {
+				if(!matches(slot, name)) continue;
+
+				var offset = offset(slot);
+				if(buffer.getLong(offset + EXPIRY) < now) return null;
+
+				//A crash while writing or a damaged file may leave an invalid length
+				var length = buffer.getInt(offset + LENGTH);
+				if(length < 0 || length > slotSize - DATA) return null;
+
+				content = new byte[length];
+				buffer.get(offset + DATA, content);
+				buffer.putLong(offset + EXPIRY, now + ttl);
+			}
+
+			//Parsing happens outside the lock
+			try {
+				return JsonParser.parseString(new String(content, StandardCharsets.UTF_8)).getAsJsonObject();
+			} catch(RuntimeException e) {
+				return null;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Writes all changes to the file
+	 */
+	public synchronized void flush() {
+		buffer.force();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+
+	private int slot(String key) {
+		return (key.hashCode() & 0x7FFFFFFF) % slots;
+	}
+
+	private Object lock(int slot) {
+		return locks[slot % locks.length];
+	}
+
+	private int offset(int slot) {
+		return HEADER + slot * slotSize;
+	}
+
+	private boolean isFree(int slot, long now) {
+		var offset = offset(slot);
+		return buffer.get(offset + KEY) == 0 || buffer.getLong(offset + EXPIRY) < now;
+	}
+
+	private boolean matches(int slot, byte[] name) {
+		var offset = offset(slot);
+		if(buffer.get(offset + KEY) != name.length) return false;
+
+		for(int i = 0; i < name.length; i++) {
+			if(buffer.get(offset + KEY + 1 + i) != name[i]) return false;
+		}
+
+		return true;
+	}
+}
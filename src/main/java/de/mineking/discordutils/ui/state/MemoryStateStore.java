@@ -0,0 +1,48 @@
+package de.mineking.discordutils.ui.state;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.gson.JsonObject;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * A {@link StateStore} that keeps states in memory. States are lost on restart, so menus fall back to their inline state.
+ */
+public class MemoryStateStore implements StateStore {
+	private final Cache<String, JsonObject> cache;
+
+	/**
+	 * @param ttl     How long states are kept after their last access
+	 * @param maxSize The maximum number of states to keep
+	 */
+	public MemoryStateStore(@NotNull Duration ttl, long maxSize) {
+		Checks.notNull(ttl, "ttl");
+		Checks.positive(maxSize, "maxSize");
+
+		this.cache = Caffeine.newBuilder().expireAfterAccess(ttl).maximumSize(maxSize).build();
+	}
+
+	@Override
+	public boolean put(@NotNull String key, @NotNull JsonObject data) {
+		cache.put(key, data.deepCopy());
+		return true;
+	}
+
+	@Nullable
+	@Override
+	public JsonObject get(@NotNull String key) {
+		var data = cache.getIfPresent(key);
+		return data == null ? null : data.deepCopy();
+	}
+
+	/**
+	 * @return The number of states currently kept
+	 */
+	public long size() {
+		return cache.estimatedSize();
+	}
+}
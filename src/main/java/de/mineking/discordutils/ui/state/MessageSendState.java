@@ -92,6 +92,36 @@ public class MessageSendState extends SendState<MessageMenu> {
 		return (MessageSendState) super.setState(name, type, value);
 	}
 
+	@NotNull
+	@Override
+	public <T> MessageSendState setState(@NotNull StateKey<T> key, @Nullable T value) {
+		return (MessageSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public MessageSendState setState(@NotNull StateKey.IntKey key, int value) {
+		return (MessageSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public MessageSendState setState(@NotNull StateKey.LongKey key, long value) {
+		return (MessageSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public MessageSendState setState(@NotNull StateKey.BooleanKey key, boolean value) {
+		return (MessageSendState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public <T> MessageSendState updateState(@NotNull StateKey<T> key, @NotNull Function<T, T> value) {
+		return (MessageSendState) super.updateState(key, value);
+	}
+
 	@NotNull
 	@Override
 	public MessageSendState putStates(@NotNull Map<String, ?> states) {
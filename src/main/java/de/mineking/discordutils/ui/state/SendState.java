@@ -43,6 +43,36 @@ public abstract class SendState<M extends Menu> extends DataState<M> {
 		return (SendState<M>) super.setState(name, type, value);
 	}
 
+	@NotNull
+	@Override
+	public <T> SendState<M> setState(@NotNull StateKey<T> key, @Nullable T value) {
+		return (SendState<M>) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public SendState<M> setState(@NotNull StateKey.IntKey key, int value) {
+		return (SendState<M>) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public SendState<M> setState(@NotNull StateKey.LongKey key, long value) {
+		return (SendState<M>) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public SendState<M> setState(@NotNull StateKey.BooleanKey key, boolean value) {
+		return (SendState<M>) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public <T> SendState<M> updateState(@NotNull StateKey<T> key, @NotNull Function<T, T> value) {
+		return (SendState<M>) super.updateState(key, value);
+	}
+
 	@NotNull
 	@Override
 	public SendState<M> putStates(@NotNull Map<String, ?> states) {
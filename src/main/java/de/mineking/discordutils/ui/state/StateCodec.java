@@ -0,0 +1,74 @@
+package de.mineking.discordutils.ui.state;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Converts state data to the text that is stored in component ids and back.
+ *
+ * @see de.mineking.discordutils.ui.Menu#codec(StateCodec)
+ */
+public interface StateCodec {
+	/**
+	 * @param data The state data
+	 * @return The encoded state
+	 */
+	@NotNull
+	String encode(@NotNull JsonObject data);
+
+	/**
+	 * @param data     The state data
+	 * @param capacity The number of characters available in the component ids of the menu. Codecs can use this to decide whether to add optional information
+	 * @return The encoded state
+	 */
+	@NotNull
+	default String encode(@NotNull JsonObject data, int capacity) {
+		return encode(data);
+	}
+
+	/**
+	 * @param data The encoded state
+	 * @return The state data
+	 */
+	@NotNull
+	JsonObject decode(@NotNull String data);
+
+	/**
+	 * Stores states as json text. This is the default.
+	 */
+	StateCodec JSON = new StateCodec() {
+		@NotNull
+		@Override
+		public String encode(@NotNull JsonObject data) {
+			return data.toString();
+		}
+
+		@NotNull
+		@Override
+		public JsonObject decode(@NotNull String data) {
+			return JsonParser.parseString(data).getAsJsonObject();
+		}
+	};
+
+	/**
+	 * @param keys The state names to encode as small integers. You may append names later, but you must not remove or reorder names, because this would break menus that are already sent
+	 * @return A {@link CompactStateCodec} with the provided key dictionary
+	 */
+	@NotNull
+	static StateCodec compact(@NotNull String... keys) {
+		return new CompactStateCodec(List.of(keys));
+	}
+
+	/**
+	 * @param store  The {@link StateStore} to keep states in
+	 * @param inline The {@link StateCodec} to use if a state is not available in the store
+	 * @return A {@link StoredStateCodec} that only stores a key in component ids
+	 */
+	@NotNull
+	static StateCodec stored(@NotNull StateStore store, @NotNull StateCodec inline) {
+		return new StoredStateCodec(store, inline);
+	}
+}
@@ -0,0 +1,176 @@
+package de.mineking.discordutils.ui.state;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Type;
+
+/**
+ * A typed state name. Declare keys once per menu and use them with {@link DataState#getState(StateKey)} and {@link DataState#setState(StateKey, Object)}.
+ * <p>
+ * Values of keys are decoded once per {@link DataState} and memoized until the state is changed. Keys created with {@link #ofInt(String)}, {@link #ofLong(String)} and {@link #ofBoolean(String)} read their values directly from the state data without boxing.
+ *
+ * @param <T> The type of the state value
+ */
+public class StateKey<T> {
+	private final String name;
+	private final Type type;
+
+	protected StateKey(@NotNull String name, @NotNull Type type) {
+		Checks.notNull(name, "name");
+		Checks.notNull(type, "type");
+
+		this.name = name;
+		this.type = type;
+	}
+
+	/**
+	 * @param name The name of the state
+	 * @param type The {@link Type} of the state
+	 * @return The resulting {@link StateKey}
+	 */
+	@NotNull
+	public static <T> StateKey<T> of(@NotNull String name, @NotNull Type type) {
+		return new StateKey<>(name, type);
+	}
+
+	/**
+	 * @param name The name of the state
+	 * @param type The {@link Class} of the state
+	 * @return The resulting {@link StateKey}
+	 */
+	@NotNull
+	public static <T> StateKey<T> of(@NotNull String name, @NotNull Class<T> type) {
+		return new StateKey<>(name, type);
+	}
+
+	/**
+	 * @param name The name of the state
+	 * @return A {@link IntKey} for the state
+	 */
+	@NotNull
+	public static IntKey ofInt(@NotNull String name) {
+		return new IntKey(name);
+	}
+
+	/**
+	 * @param name The name of the state
+	 * @return A {@link LongKey} for the state
+	 */
+	@NotNull
+	public static LongKey ofLong(@NotNull String name) {
+		return new LongKey(name);
+	}
+
+	/**
+	 * @param name The name of the state
+	 * @return A {@link BooleanKey} for the state
+	 */
+	@NotNull
+	public static BooleanKey ofBoolean(@NotNull String name) {
+		return new BooleanKey(name);
+	}
+
+	/**
+	 * @return The name of the state
+	 */
+	@NotNull
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The {@link Type} of the state
+	 */
+	@NotNull
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @param element The stored value
+	 * @return The decoded value
+	 */
+	public T decode(@NotNull JsonElement element) {
+		return State.gson.fromJson(element, type);
+	}
+
+	/**
+	 * @param value The value
+	 * @return The value to store
+	 */
+	@NotNull
+	public JsonElement encode(@NotNull T value) {
+		return State.gson.toJsonTree(value, type);
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + type.getTypeName() + ")";
+	}
+
+	public static class IntKey extends StateKey<Integer> {
+		IntKey(@NotNull String name) {
+			super(name, int.class);
+		}
+
+		public int decodeInt(@NotNull JsonElement element) {
+			return element.getAsInt();
+		}
+
+		@Override
+		public Integer decode(@NotNull JsonElement element) {
+			return decodeInt(element);
+		}
+
+		@NotNull
+		@Override
+		public JsonElement encode(@NotNull Integer value) {
+			return new JsonPrimitive(value);
+		}
+	}
+
+	public static class LongKey extends StateKey<Long> {
+		LongKey(@NotNull String name) {
+			super(name, long.class);
+		}
+
+		public long decodeLong(@NotNull JsonElement element) {
+			return element.getAsLong();
+		}
+
+		@Override
+		public Long decode(@NotNull JsonElement element) {
+			return decodeLong(element);
+		}
+
+		@NotNull
+		@Override
+		public JsonElement encode(@NotNull Long value) {
+			return new JsonPrimitive(value);
+		}
+	}
+
+	public static class BooleanKey extends StateKey<Boolean> {
+		BooleanKey(@NotNull String name) {
+			super(name, boolean.class);
+		}
+
+		public boolean decodeBoolean(@NotNull JsonElement element) {
+			return element.getAsBoolean();
+		}
+
+		@Override
+		public Boolean decode(@NotNull JsonElement element) {
+			return decodeBoolean(element);
+		}
+
+		@NotNull
+		@Override
+		public JsonElement encode(@NotNull Boolean value) {
+			return new JsonPrimitive(value);
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package de.mineking.discordutils.ui.state;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Keeps menu states on the server, so that component ids only have to carry a short key.
+ *
+ * @see StoredStateCodec
+ * @see MemoryStateStore
+ * @see MappedStateStore
+ */
+public interface StateStore {
+	/**
+	 * @param key  The key of the state
+	 * @param data The state data. Implementations have to copy the data if they keep the object
+	 * @return Whether the state was stored
+	 */
+	boolean put(@NotNull String key, @NotNull JsonObject data);
+
+	/**
+	 * @param key The key of the state
+	 * @return The state data or {@code null} if the key is unknown or expired. The caller may modify the returned object
+	 */
+	@Nullable
+	JsonObject get(@NotNull String key);
+
+	/**
+	 * @param ttl     How long states are kept after their last access
+	 * @param maxSize The maximum number of states to keep
+	 * @return A {@link MemoryStateStore}
+	 */
+	@NotNull
+	static StateStore memory(@NotNull Duration ttl, long maxSize) {
+		return new MemoryStateStore(ttl, maxSize);
+	}
+}
@@ -0,0 +1,99 @@
+package de.mineking.discordutils.ui.state;
+
+import com.google.gson.JsonObject;
+import net.dv8tion.jda.internal.utils.Checks;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A {@link StateCodec} that keeps states in a {@link StateStore} and only stores a key in component ids. Keys are derived from the state content, so identical states share a single entry.
+ * <p>
+ * If the component ids have enough space left, the inline encoding of the state is appended to the key. It is used when the state is no longer available in the store, for example after a restart or when the state expired.
+ *
+ * @see StateCodec#stored(StateStore, StateCodec)
+ */
+public class StoredStateCodec implements StateCodec {
+	private final static Logger logger = LoggerFactory.getLogger(StoredStateCodec.class);
+
+	/**
+	 * The length of the state keys
+	 */
+	public final static int KEY_LENGTH = 20;
+
+	private final static char MARKER = '%';
+
+	private final StateStore store;
+	private final StateCodec inline;
+
+	/**
+	 * @param store  The {@link StateStore} to keep states in
+	 * @param inline The {@link StateCodec} to use if a state is not available in the store
+	 */
+	public StoredStateCodec(@NotNull StateStore store, @NotNull StateCodec inline) {
+		Checks.notNull(store, "store");
+		Checks.notNull(inline, "inline");
+
+		this.store = store;
+		this.inline = inline;
+	}
+
+	/**
+	 * @return The {@link StateStore} states are kept in
+	 */
+	@NotNull
+	public StateStore getStore() {
+		return store;
+	}
+
+	@NotNull
+	@Override
+	public String encode(@NotNull JsonObject data) {
+		return encode(data, 0);
+	}
+
+	@NotNull
+	@Override
+	public String encode(@NotNull JsonObject data, int capacity) {
+		Checks.notNull(data, "data");
+
+		var key = key(data.toString());
+		if(!store.put(key, data)) return inline.encode(data);
+
+		var result = MARKER + key;
+
+		var fallback = inline.encode(data);
+		return result.length() + fallback.length() <= capacity ? result + fallback : result;
+	}
+
+	@NotNull
+	@Override
+	public JsonObject decode(@NotNull String data) {
+		Checks.notNull(data, "data");
+
+		if(data.length() < KEY_LENGTH + 1 || data.charAt(0) != MARKER) return inline.decode(data);
+
+		var result = store.get(data.substring(1, KEY_LENGTH + 1));
+		if(result != null) return result;
+
+		if(data.length() > KEY_LENGTH + 1) return inline.decode(data.substring(KEY_LENGTH + 1));
+
+		logger.warn("State {} is not available anymore", data.substring(1, KEY_LENGTH + 1));
+		return new JsonObject();
+	}
+
+	private static String key(String content) {
+		try {
+			var hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, KEY_LENGTH / 4 * 3));
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
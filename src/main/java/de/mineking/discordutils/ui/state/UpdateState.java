@@ -1,7 +1,6 @@
 package de.mineking.discordutils.ui.state;
 
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import de.mineking.discordutils.ui.MessageMenu;
 import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
 import net.dv8tion.jda.api.interactions.callbacks.IMessageEditCallback;
@@ -9,12 +8,15 @@ import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
 import net.dv8tion.jda.api.interactions.components.ActionComponent;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import net.dv8tion.jda.internal.utils.Checks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 public class UpdateState extends DataState<MessageMenu> {
@@ -37,18 +39,15 @@ public class UpdateState extends DataState<MessageMenu> {
 
 		event.getMessage().getComponents().stream().flatMap(r -> r.getComponents().stream()).filter(c -> c instanceof ActionComponent).map(c -> (ActionComponent) c).filter(c -> c.getId() != null).forEach(c -> data.append(c.getId().split(":", 3)[2]));
 
-		return new UpdateState(event, menu, JsonParser.parseString(data.toString()).getAsJsonObject());
+		return new UpdateState(event, menu, menu.getCodec().decode(data.toString()));
 	}
 
 	/**
-	 * Re-renders the menu
+	 * Re-renders the menu. The message is only edited if the render differs from the current message
 	 */
 	public void instantUpdate() {
 		if(event == null) return;
-
-		if(event instanceof IMessageEditCallback edit && !edit.isAcknowledged())
-			edit.editMessage(menu.buildMessage(this)).queue();
-		else event.getHook().editOriginal(menu.buildMessage(this)).queue();
+		edit(menu.buildMessage(this), event instanceof IMessageEditCallback edit && !edit.isAcknowledged());
 	}
 
 	/**
@@ -64,11 +63,51 @@ public class UpdateState extends DataState<MessageMenu> {
 	}
 
 	/**
-	 * Disables all components and then re-renders the menu. This should be used if your rendering takes very long
+	 * Re-renders the menu. If rendering finishes within the {@link MessageMenu#getRenderBudget() render budget}, the interaction is acknowledged with a single edit. Otherwise, all components are disabled until rendering finished.
 	 */
 	public void update() {
-		deferUpdate();
-		instantUpdate();
+		var budget = menu.getRenderBudget();
+
+		if(!(event instanceof GenericComponentInteractionCreateEvent evt) || evt.isAcknowledged() || budget.isZero()) {
+			deferUpdate();
+			instantUpdate();
+			return;
+		}
+
+		var acknowledged = new AtomicBoolean();
+		var timeout = menu.getManager().getManager().getScheduler().schedule(() -> {
+			if(acknowledged.compareAndSet(false, true)) deferUpdate();
+		}, budget.toMillis(), TimeUnit.MILLISECONDS);
+
+		MessageEditData message;
+
+		try {
+			message = menu.buildMessage(this);
+		} catch(RuntimeException e) {
+			timeout.cancel(false);
+			if(acknowledged.compareAndSet(false, true)) deferUpdate();
+
+			throw e;
+		}
+
+		timeout.cancel(false);
+		edit(message, acknowledged.compareAndSet(false, true));
+	}
+
+	private void edit(@NotNull MessageEditData message, boolean acknowledge) {
+		var change = event instanceof GenericComponentInteractionCreateEvent evt ? menu.diff(evt.getMessage(), message) : MessageMenu.RenderChange.MESSAGE;
+
+		if(!acknowledge || !(event instanceof IMessageEditCallback edit)) {
+			//The interaction might have been acknowledged with a different message, so the hook always edits the full message
+			event.getHook().editOriginal(message).queue();
+			return;
+		}
+
+		switch(change) {
+			case NONE -> edit.deferEdit().queue();
+			case COMPONENTS -> edit.editComponents(message.getComponents()).queue();
+			case MESSAGE -> edit.editMessage(message).queue();
+		}
 	}
 
 	/**
@@ -107,6 +146,36 @@ public class UpdateState extends DataState<MessageMenu> {
 		return (UpdateState) super.setState(name, type, value);
 	}
 
+	@NotNull
+	@Override
+	public <T> UpdateState setState(@NotNull StateKey<T> key, @Nullable T value) {
+		return (UpdateState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public UpdateState setState(@NotNull StateKey.IntKey key, int value) {
+		return (UpdateState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public UpdateState setState(@NotNull StateKey.LongKey key, long value) {
+		return (UpdateState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public UpdateState setState(@NotNull StateKey.BooleanKey key, boolean value) {
+		return (UpdateState) super.setState(key, value);
+	}
+
+	@NotNull
+	@Override
+	public <T> UpdateState updateState(@NotNull StateKey<T> key, @NotNull Function<T, T> value) {
+		return (UpdateState) super.updateState(key, value);
+	}
+
 	@NotNull
 	@Override
 	public <T> UpdateState setCache(@NotNull String name, @Nullable T value) {
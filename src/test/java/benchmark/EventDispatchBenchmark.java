@@ -0,0 +1,64 @@
+package benchmark;
+
+import de.mineking.discordutils.events.EventManager;
+import de.mineking.discordutils.events.handlers.FilteredEventHandler;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.components.buttons.ButtonInteraction;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prints the number of button events per second that {@link EventManager} can dispatch for a growing number of menu component handlers
+ */
+public class EventDispatchBenchmark {
+	private final static int[] handlerCounts = { 10, 100, 1_000, 10_000, 100_000 };
+	private final static int events = 1_000_000;
+
+	public static void main(String[] args) {
+		System.out.printf("%-10s %15s%n", "handlers", "events/s");
+
+		for(var count : handlerCounts) {
+			var manager = new EventManager();
+			var handled = new LongAdder();
+
+			for(int i = 0; i < count; i++) {
+				var prefix = "menu" + (i / 5) + ":button" + (i % 5) + ":";
+				manager.addEventHandler(prefix, new FilteredEventHandler<>(ButtonInteractionEvent.class, event -> event.getComponentId().startsWith(prefix)) {
+					@Override
+					public void handleEvent(ButtonInteractionEvent event) {
+						handled.increment();
+					}
+				});
+			}
+
+			var samples = new ButtonInteractionEvent[1024];
+			for(int i = 0; i < samples.length; i++) {
+				var target = ThreadLocalRandom.current().nextInt(count);
+				samples[i] = createEvent("menu" + (target / 5) + ":button" + (target % 5) + ":{\"page\":1}");
+			}
+
+			for(int i = 0; i < events / 10; i++) manager.onGenericEvent(samples[i % samples.length]);
+
+			var start = System.nanoTime();
+			for(int i = 0; i < events; i++) manager.onGenericEvent(samples[i % samples.length]);
+			var time = System.nanoTime() - start;
+
+			System.out.printf("%-10d %15.0f%n", count, events / (time / 1e9));
+
+			if(handled.sum() != events + events / 10) throw new IllegalStateException("Expected every event to be handled exactly once");
+		}
+	}
+
+	private static ButtonInteractionEvent createEvent(String id) {
+		var interaction = (ButtonInteraction) Proxy.newProxyInstance(EventDispatchBenchmark.class.getClassLoader(), new Class<?>[] { ButtonInteraction.class }, (proxy, method, args) -> switch(method.getName()) {
+			case "getComponentId" -> id;
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "equals" -> proxy == args[0];
+			default -> null;
+		});
+
+		return new ButtonInteractionEvent(null, 0, interaction);
+	}
+}
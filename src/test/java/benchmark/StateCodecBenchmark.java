@@ -0,0 +1,55 @@
+package benchmark;
+
+import com.google.gson.JsonObject;
+import de.mineking.discordutils.ui.state.State;
+import de.mineking.discordutils.ui.state.StateCodec;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the encoded size and the encode and decode time of the json and the compact {@link StateCodec} for some typical menu states
+ */
+public class StateCodecBenchmark {
+	private final static int iterations = 200_000;
+
+	public static void main(String[] args) {
+		var compact = StateCodec.compact("page", "filter", "sort", "ascending", "selected", "user", "count");
+
+		var states = Map.of(
+				"small", state(Map.of("page", 1)),
+				"list", state(Map.of("page", 12, "filter", "admin", "sort", "name", "ascending", true)),
+				"selection", state(Map.of("page", 3, "selected", List.of(4, 8, 15, 16, 23, 42), "user", 1136674133425070120L, "count", 2.5))
+		);
+
+		System.out.printf("%-10s %-8s %6s %12s %12s%n", "state", "codec", "chars", "encode ns", "decode ns");
+
+		states.forEach((name, state) -> {
+			run(name, "json", StateCodec.JSON, state);
+			run(name, "compact", compact, state);
+		});
+	}
+
+	private static JsonObject state(Map<String, ?> values) {
+		var result = new JsonObject();
+		values.forEach((k, v) -> result.add(k, State.gson.toJsonTree(v)));
+		return result;
+	}
+
+	private static void run(String name, String codecName, StateCodec codec, JsonObject state) {
+		var encoded = codec.encode(state);
+		if(!codec.decode(encoded).equals(state)) throw new IllegalStateException("State changed after decoding: " + state + " -> " + codec.decode(encoded));
+
+		for(int i = 0; i < iterations / 10; i++) codec.decode(codec.encode(state));
+
+		var start = System.nanoTime();
+		for(int i = 0; i < iterations; i++) codec.encode(state);
+		var encode = (System.nanoTime() - start) / iterations;
+
+		start = System.nanoTime();
+		for(int i = 0; i < iterations; i++) codec.decode(encoded);
+		var decode = (System.nanoTime() - start) / iterations;
+
+		System.out.printf("%-10s %-8s %6d %12d %12d%n", name, codecName, encoded.length(), encode, decode);
+	}
+}